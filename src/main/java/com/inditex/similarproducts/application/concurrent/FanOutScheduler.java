@@ -0,0 +1,322 @@
+package com.inditex.similarproducts.application.concurrent;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fair scheduler for the per-request detail fan-out.
+ * <p>
+ * Every inbound request gets its own {@link #newBatch() batch}, a sub-queue
+ * served by the worker threads round-robin, one task per turn, so a request
+ * with a very large fan-out only delays the others by its share of the
+ * workers instead of by its whole list, as it would with a FIFO executor.
+ * </p>
+ * <p>
+ * The {@code maxParallelismPerRequest} cap only applies under contention,
+ * while another request also has tasks waiting. A request alone on the
+ * scheduler may use every worker, so a small fan-out on an idle pool runs
+ * in a single round trip. Background batches with an explicit cap never
+ * exceed it.
+ * </p>
+ * <p>
+ * Each batch records how long it waited for a worker while it was below its
+ * parallelism cap. Time spent behind its own cap, or waiting for a worker
+ * it may only take because the scheduler had no other request, is not
+ * counted, so the wait measures contention between requests rather than
+ * the size of one request's fan-out.
+ * </p>
+ * <p>
+ * Both the number of workers and the parallelism cap can be changed at
+ * runtime. Surplus workers retire once they finish their current task.
+ * </p>
+ * Pure Java class with no framework dependencies.
+ */
+public class FanOutScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(FanOutScheduler.class);
+
+    private static final long IDLE_POLL_MILLIS = 1000;
+
+    private final BlockingQueue<Batch> ready = new LinkedBlockingQueue<>();
+    private final Set<Thread> workers = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger liveWorkers = new AtomicInteger();
+    private final AtomicInteger workerIds = new AtomicInteger();
+    private final AtomicInteger queuedTasks = new AtomicInteger();
+    private final AtomicInteger pendingRequests = new AtomicInteger();
+    private volatile int workerCount;
+    private volatile int maxParallelismPerRequest;
+    private volatile boolean shutdown;
+
+    public FanOutScheduler(int workerCount, int maxParallelismPerRequest) {
+        setMaxParallelismPerRequest(maxParallelismPerRequest);
+        resize(workerCount);
+    }
+
+    /**
+     * Changes the number of workers. New workers start immediately; surplus
+     * workers retire after their current task.
+     */
+    public synchronized void resize(int workerCount) {
+        if (workerCount < 1) {
+            throw new IllegalArgumentException("Worker count must be positive");
+        }
+        this.workerCount = workerCount;
+        while (!shutdown && liveWorkers.get() < workerCount) {
+            liveWorkers.incrementAndGet();
+            Thread worker = new Thread(this::work, "fanout-" + workerIds.getAndIncrement());
+            worker.setDaemon(true);
+            workers.add(worker);
+            worker.start();
+        }
+    }
+
+    /**
+     * Changes the parallelism cap applied under contention. Applies to the
+     * next task each request schedules.
+     */
+    public void setMaxParallelismPerRequest(int maxParallelismPerRequest) {
+        if (maxParallelismPerRequest < 1) {
+            throw new IllegalArgumentException("Parallelism per request must be positive");
+        }
+        this.maxParallelismPerRequest = maxParallelismPerRequest;
+    }
+
+    /**
+     * Creates the sub-queue of a request. Tasks submitted to the returned
+     * executor run on the shared workers, interleaved with other requests.
+     */
+    public Batch newBatch() {
+        return new Batch(Integer.MAX_VALUE, true);
+    }
+
+    /**
+     * Creates a sub-queue with a fixed parallelism cap, for background work
+     * that must only take a small share of the workers. The cap applies
+     * whether or not the scheduler is idle, and the batch does not count as
+     * contention for requests.
+     */
+    public Batch newBatch(int maxParallelism) {
+        if (maxParallelism < 1) {
+            throw new IllegalArgumentException("Batch parallelism must be positive");
+        }
+        return new Batch(maxParallelism, false);
+    }
+
+    /**
+     * Returns the number of submitted tasks that have not started yet.
+     */
+    public int getQueuedTasks() {
+        return queuedTasks.get();
+    }
+
+    /**
+     * Returns the number of requests currently waiting for a worker.
+     */
+    public int getWaitingRequests() {
+        return ready.size();
+    }
+
+    public int getWorkerCount() {
+        return workerCount;
+    }
+
+    public int getMaxParallelismPerRequest() {
+        return maxParallelismPerRequest;
+    }
+
+    /**
+     * Stops the workers. Tasks not yet started are discarded.
+     */
+    public void shutdown() {
+        shutdown = true;
+        workers.forEach(Thread::interrupt);
+    }
+
+    private void work() {
+        try {
+            while (!shutdown && !retire()) {
+                Batch batch;
+                try {
+                    batch = ready.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    // Only shutdown stops a worker; a stray interrupt left by a task is dropped
+                    continue;
+                }
+                if (batch != null) {
+                    runNext(batch);
+                }
+            }
+        } finally {
+            workers.remove(Thread.currentThread());
+        }
+    }
+
+    /**
+     * Claims the retirement of the current worker if there are more live
+     * workers than configured.
+     */
+    private boolean retire() {
+        while (true) {
+            int live = liveWorkers.get();
+            if (live <= workerCount) {
+                return false;
+            }
+            if (liveWorkers.compareAndSet(live, live - 1)) {
+                return true;
+            }
+        }
+    }
+
+    private void runNext(Batch batch) {
+        Runnable task = batch.poll();
+        if (task == null) {
+            return;
+        }
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            logger.warn("Fan-out task failed: {}", e.getMessage());
+        } finally {
+            batch.done();
+        }
+    }
+
+    /**
+     * Sub-queue of one request. It is in the ready queue, at most once, while
+     * it has pending tasks and is below its parallelism cap.
+     * <p>
+     * A request batch counts in {@code pendingRequests} while it has pending
+     * tasks; the per-request cap applies to a batch only while some other
+     * request is counted there.
+     * </p>
+     */
+    public final class Batch implements Executor {
+
+        private final Queue<Runnable> pending = new ArrayDeque<>();
+        private final int maxParallelism;
+        private final boolean request;
+        private int running;
+        private boolean scheduled;
+        private boolean waitCounted;
+        private long scheduledNanos;
+        private long maxWaitNanos;
+
+        private Batch(int maxParallelism, boolean request) {
+            this.maxParallelism = maxParallelism;
+            this.request = request;
+        }
+
+        @Override
+        public void execute(Runnable task) {
+            if (shutdown) {
+                throw new RejectedExecutionException("Fan-out scheduler has been shut down");
+            }
+            queuedTasks.incrementAndGet();
+            boolean schedule;
+            synchronized (this) {
+                pending.add(task);
+                if (request && pending.size() == 1) {
+                    pendingRequests.incrementAndGet();
+                }
+                schedule = markScheduled();
+            }
+            if (schedule) {
+                ready.add(this);
+            }
+        }
+
+        /**
+         * Returns the longest time a task of this batch waited for a worker
+         * since the batch was allowed to run it, in nanoseconds.
+         */
+        public synchronized long getMaxWaitNanos() {
+            return maxWaitNanos;
+        }
+
+        /**
+         * Takes the next task. The batch goes back to the tail of the ready
+         * queue if it can run more, which gives round-robin service.
+         */
+        private Runnable poll() {
+            Runnable task;
+            boolean schedule;
+            synchronized (this) {
+                scheduled = false;
+                task = pending.poll();
+                if (task != null) {
+                    running++;
+                    if (waitCounted) {
+                        maxWaitNanos = Math.max(maxWaitNanos, System.nanoTime() - scheduledNanos);
+                    }
+                    if (request && pending.isEmpty()) {
+                        pendingRequests.decrementAndGet();
+                    }
+                }
+                schedule = markScheduled();
+            }
+            if (task != null) {
+                queuedTasks.decrementAndGet();
+            }
+            if (schedule) {
+                ready.add(this);
+            }
+            return task;
+        }
+
+        private void done() {
+            boolean schedule;
+            synchronized (this) {
+                running--;
+                if (scheduled && !waitCounted) {
+                    startWaitClock();
+                }
+                schedule = markScheduled();
+            }
+            if (schedule) {
+                ready.add(this);
+            }
+        }
+
+        private boolean markScheduled() {
+            if (scheduled || pending.isEmpty() || running >= maxParallelism) {
+                return false;
+            }
+            if (running >= maxParallelismPerRequest && isContended()) {
+                return false;
+            }
+            scheduled = true;
+            startWaitClock();
+            return true;
+        }
+
+        /**
+         * Starts timing the wait for a worker, unless the batch is at or above
+         * its cap and only scheduled because no other request is waiting.
+         */
+        private void startWaitClock() {
+            waitCounted = running < Math.min(maxParallelism, maxParallelismPerRequest);
+            if (waitCounted) {
+                scheduledNanos = System.nanoTime();
+            }
+        }
+
+        /**
+         * Returns true if another request has tasks waiting. A request batch
+         * with pending tasks counts itself.
+         */
+        private boolean isContended() {
+            return pendingRequests.get() > (request ? 1 : 0);
+        }
+    }
+}
@@ -1,18 +1,25 @@
 package com.inditex.similarproducts.application.service;
 
+import com.inditex.similarproducts.application.concurrent.FanOutScheduler;
+import com.inditex.similarproducts.application.timing.RequestTimings;
 import com.inditex.similarproducts.domain.model.ProductDetail;
 import com.inditex.similarproducts.domain.port.in.GetSimilarProductsUseCase;
 import com.inditex.similarproducts.domain.port.out.ProductRepositoryPort;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.util.Collections;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.Executor;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
+import java.util.function.IntPredicate;
 
 /**
  * Application service implementing the use case for retrieving similar
@@ -25,66 +32,166 @@ public class SimilarProductsService implements GetSimilarProductsUseCase {
     private static final Logger logger = LoggerFactory.getLogger(SimilarProductsService.class);
 
     private final ProductRepositoryPort productRepository;
-    private final Executor taskExecutor;
+    private final FanOutScheduler fanOutScheduler;
+    private final int window;
 
-    public SimilarProductsService(ProductRepositoryPort productRepository, Executor taskExecutor) {
+    public SimilarProductsService(ProductRepositoryPort productRepository, FanOutScheduler fanOutScheduler,
+            @Value("${fan-out.window:32}") int window) {
+        if (window < 1) {
+            throw new IllegalArgumentException("Fan-out window must be positive");
+        }
         this.productRepository = productRepository;
-        this.taskExecutor = taskExecutor;
+        this.fanOutScheduler = fanOutScheduler;
+        this.window = window;
     }
 
     /**
      * Executes the use case to retrieve similar products.
      * <p>
+     * Collects the products emitted by {@link #stream(String, Consumer)}, so
+     * the whole list is held in memory.
+     * </p>
+     *
+     * @param productId the ID of the product to find similar products for
+     * @return a list of {@link ProductDetail} objects, ordered by similarity
+     */
+    @Override
+    public List<ProductDetail> execute(String productId) {
+        List<ProductDetail> similarProducts = new ArrayList<>();
+        stream(productId, similarProducts::add);
+        return similarProducts;
+    }
+
+    /**
+     * Retrieves similar products, emitting them in order as they become
+     * available.
+     * <p>
      * This method orchestrates the following steps:
      * 1. Fetches the list of similar product IDs for the given productId.
-     * 2. Fetches the details for each similar product in parallel.
-     * 3. Aggregates the results and returns the list of product details.
+     * 2. Fetches the details in parallel, in a {@link FanOutScheduler} batch
+     * of its own, keeping at most {@code fan-out.window} positions of the list
+     * pending at a time. Each ID is fetched once per request even if it is
+     * listed several times; the fetch is kept only until the last position of
+     * its ID is emitted.
+     * 3. Emits each product as soon as it and all the products before it are
+     * resolved. Products that could not be fetched are skipped.
      * </p>
-     * Results are cached to improve performance for frequent requests.
+     * <p>
+     * Besides the similar IDs list and an index of the last position of each
+     * ID, which grow with the list, the request holds the product details of
+     * the window and of the IDs repeated further down the list; emitted
+     * products are not kept.
+     * </p>
+     * Phase timings are recorded into the current {@link RequestTimings}; the
+     * queue phase is the longest time the batch waited for a worker held by
+     * other requests.
      *
      * @param productId the ID of the product to find similar products for
-     * @return a list of {@link ProductDetail} objects
+     * @param consumer  receives the similar products, in order
      */
     @Override
-    @org.springframework.cache.annotation.Cacheable("similarProducts")
-    public List<ProductDetail> execute(String productId) {
-        logger.info("Fetching similar products for product ID: {}", productId);
+    public void stream(String productId, Consumer<ProductDetail> consumer) {
+        stream(productId, consumer, fanOutScheduler.newBatch(), fanOut -> true);
+    }
+
+    /**
+     * Retrieves similar products for a speculative background load.
+     * <p>
+     * The details are fetched in a batch capped at {@code maxParallelism}, so
+     * the load only takes a small share of the fan-out workers, and only if
+     * {@code admission} accepts the number of distinct detail fetches. Results
+     * are not cached; the caller decides what to do with them.
+     * </p>
+     *
+     * @param productId      the ID of the product to find similar products for
+     * @param maxParallelism the maximum detail fetches running at a time
+     * @param admission      tested with the number of detail fetches before
+     *                       any of them is issued
+     * @return the similar products, or empty if the fan-out was not admitted
+     */
+    public Optional<List<ProductDetail>> executeInBackground(String productId, int maxParallelism,
+            IntPredicate admission) {
+        List<ProductDetail> similarProducts = new ArrayList<>();
+        boolean admitted = stream(productId, similarProducts::add, fanOutScheduler.newBatch(maxParallelism),
+                admission);
+        return admitted ? Optional.of(similarProducts) : Optional.empty();
+    }
+
+    /**
+     * @return false if {@code admission} refused the detail fan-out
+     */
+    private boolean stream(String productId, Consumer<ProductDetail> consumer, FanOutScheduler.Batch batch,
+            IntPredicate admission) {
+        logger.debug("Fetching similar products for product ID: {}", productId);
+        RequestTimings timings = RequestTimings.current();
 
         // Step 1: Get the list of similar product IDs
+        long similarIdsStart = System.nanoTime();
         List<String> similarProductIds = productRepository.getSimilarProductIds(productId);
+        timings.add(RequestTimings.SIMILAR_IDS, System.nanoTime() - similarIdsStart);
+        timings.setFanOut(similarProductIds.size());
 
         if (similarProductIds.isEmpty()) {
-            logger.info("No similar products found for product ID: {}", productId);
-            return Collections.emptyList();
+            logger.debug("No similar products found for product ID: {}", productId);
+            return true;
+        }
+        // Last position of every ID: its fetch is released once emitted there
+        Map<String, Integer> lastPositions = new HashMap<>();
+        for (int position = 0; position < similarProductIds.size(); position++) {
+            lastPositions.put(similarProductIds.get(position), position);
+        }
+        if (!admission.test(lastPositions.size())) {
+            logger.debug("Fan-out of {} similar products not admitted for product ID: {}",
+                    similarProductIds.size(), productId);
+            return false;
         }
 
-        logger.info("Found {} similar product IDs for product {}: {}",
-                similarProductIds.size(), productId, similarProductIds);
-
-        // Step 2: Fetch product details in parallel
-        List<CompletableFuture<Optional<ProductDetail>>> futures = similarProductIds.stream()
-                .map(id -> CompletableFuture.supplyAsync(
-                        () -> fetchProductDetail(id),
-                        taskExecutor))
-                .collect(Collectors.toList());
-
-        // Step 3: Wait for all futures to complete and collect results
-        CompletableFuture<Void> allFutures = CompletableFuture.allOf(
-                futures.toArray(new CompletableFuture[0]));
+        if (logger.isDebugEnabled()) {
+            logger.debug("Found {} similar product IDs for product {}: {}",
+                    similarProductIds.size(), productId, similarProductIds);
+        }
 
-        // Step 4: Filter out empty results and return
-        List<ProductDetail> similarProducts = allFutures
-                .thenApply(v -> futures.stream()
-                        .map(CompletableFuture::join)
-                        .filter(Optional::isPresent)
-                        .map(Optional::get)
-                        .collect(Collectors.toList()))
-                .join();
+        // Step 2: Fetch product details in parallel, within a sliding window
+        long detailsStart = System.nanoTime();
+        Map<String, CompletableFuture<Optional<ProductDetail>>> memo = new HashMap<>();
+        Deque<String> pending = new ArrayDeque<>(window);
+        int head = 0;
+        int emitted = 0;
+        for (String id : similarProductIds) {
+            if (!memo.containsKey(id)) {
+                memo.put(id, CompletableFuture.supplyAsync(timings.wrap(() -> fetchProductDetail(id)), batch));
+            }
+            pending.addLast(id);
+            // Step 3: Emit the ordered prefix once the window is full
+            if (pending.size() >= window) {
+                emitted += emit(pending.removeFirst(), head++, memo, lastPositions, consumer);
+            }
+        }
+        while (!pending.isEmpty()) {
+            emitted += emit(pending.removeFirst(), head++, memo, lastPositions, consumer);
+        }
+        timings.add(RequestTimings.DETAILS, System.nanoTime() - detailsStart);
+        timings.max(RequestTimings.QUEUE, batch.getMaxWaitNanos());
 
-        logger.info("Successfully retrieved {} similar product details for product {}",
-                similarProducts.size(), productId);
+        logger.debug("Successfully retrieved {} similar product details for product {} ({} distinct IDs)",
+                emitted, productId, lastPositions.size());
+        return true;
+    }
 
-        return similarProducts;
+    /**
+     * Waits for the head of the window and emits its product, if any. The
+     * fetch is released from the memo at the last position of its ID.
+     *
+     * @return the number of products emitted
+     */
+    private static int emit(String id, int position, Map<String, CompletableFuture<Optional<ProductDetail>>> memo,
+            Map<String, Integer> lastPositions, Consumer<ProductDetail> consumer) {
+        CompletableFuture<Optional<ProductDetail>> fetch = lastPositions.get(id) == position
+                ? memo.remove(id)
+                : memo.get(id);
+        Optional<ProductDetail> productDetail = fetch.join();
+        productDetail.ifPresent(consumer);
+        return productDetail.isPresent() ? 1 : 0;
     }
 
     /**
@@ -0,0 +1,172 @@
+package com.inditex.similarproducts.application.timing;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Per-request collector of phase timings.
+ * <p>
+ * An instance is bound to the inbound request thread and can be propagated to
+ * worker threads with {@link #wrap(Supplier)}, so that every layer (service,
+ * adapters) records into the same request. When no request is bound,
+ * {@link #current()} returns a no-op instance and recording costs nothing.
+ * </p>
+ * Pure Java class with no framework dependencies.
+ */
+public final class RequestTimings {
+
+    public static final String SIMILAR_IDS = "similarids";
+    public static final String QUEUE = "queue";
+    public static final String DETAILS = "details";
+    public static final String UPSTREAM = "upstream";
+    public static final String PEER = "peer";
+
+    private static final ThreadLocal<RequestTimings> CURRENT = new ThreadLocal<>();
+    private static final RequestTimings NONE = new RequestTimings(false);
+
+    private final boolean enabled;
+    private final long startNanos;
+    private final Map<String, Long> phaseNanos = new LinkedHashMap<>();
+    private final Map<String, Integer> attempts = new HashMap<>();
+    private int retries;
+    private volatile int fanOut = -1;
+
+    private RequestTimings(boolean enabled) {
+        this.enabled = enabled;
+        this.startNanos = System.nanoTime();
+    }
+
+    /**
+     * Creates a new collector and binds it to the current thread.
+     */
+    public static RequestTimings start() {
+        RequestTimings timings = new RequestTimings(true);
+        CURRENT.set(timings);
+        return timings;
+    }
+
+    /**
+     * Returns the collector bound to the current thread, or a no-op one.
+     */
+    public static RequestTimings current() {
+        RequestTimings timings = CURRENT.get();
+        return timings != null ? timings : NONE;
+    }
+
+    /**
+     * Unbinds any collector from the current thread.
+     */
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long getStartNanos() {
+        return startNanos;
+    }
+
+    /**
+     * Adds the given duration to a phase.
+     */
+    public void add(String phase, long nanos) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (this) {
+            phaseNanos.merge(phase, nanos, Long::sum);
+        }
+    }
+
+    /**
+     * Keeps the maximum duration observed for a phase.
+     */
+    public void max(String phase, long nanos) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (this) {
+            phaseNanos.merge(phase, nanos, Math::max);
+        }
+    }
+
+    /**
+     * Returns the 1-based attempt number for an upstream call key, counting
+     * every invocation made under this request (retries included).
+     */
+    public int nextAttempt(String key) {
+        if (!enabled) {
+            return 1;
+        }
+        synchronized (this) {
+            int attempt = attempts.merge(key, 1, Integer::sum);
+            if (attempt > 1) {
+                retries++;
+            }
+            return attempt;
+        }
+    }
+
+    /**
+     * Records the number of similar products fetched by this request.
+     */
+    public void setFanOut(int fanOut) {
+        if (enabled) {
+            this.fanOut = fanOut;
+        }
+    }
+
+    /**
+     * Returns the number of similar products fetched by this request, or -1 if
+     * the use case did not run (e.g. the response came from the cache).
+     */
+    public int getFanOut() {
+        return fanOut;
+    }
+
+    public synchronized int getRetries() {
+        return retries;
+    }
+
+    /**
+     * Returns the recorded duration of a phase in nanoseconds, or 0.
+     */
+    public synchronized long get(String phase) {
+        return phaseNanos.getOrDefault(phase, 0L);
+    }
+
+    /**
+     * Returns a copy of the recorded phases, in recording order.
+     */
+    public synchronized Map<String, Long> snapshot() {
+        return enabled ? new LinkedHashMap<>(phaseNanos) : Collections.emptyMap();
+    }
+
+    /**
+     * Wraps a task so that it runs with this collector bound to the executing
+     * thread, restoring the previous binding afterwards.
+     */
+    public <T> Supplier<T> wrap(Supplier<T> task) {
+        if (!enabled) {
+            return task;
+        }
+        return () -> {
+            RequestTimings previous = CURRENT.get();
+            CURRENT.set(this);
+            try {
+                return task.get();
+            } finally {
+                if (previous != null) {
+                    CURRENT.set(previous);
+                } else {
+                    CURRENT.remove();
+                }
+            }
+        };
+    }
+}
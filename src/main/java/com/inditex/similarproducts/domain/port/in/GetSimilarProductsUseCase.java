@@ -2,6 +2,7 @@ package com.inditex.similarproducts.domain.port.in;
 
 import com.inditex.similarproducts.domain.model.ProductDetail;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Input port (use case) for retrieving similar products.
@@ -11,10 +12,23 @@ public interface GetSimilarProductsUseCase {
     
     /**
      * Retrieves the list of similar products for a given product ID.
+     * The whole list is held in memory; long lists are better consumed with
+     * {@link #stream(String, Consumer)}.
      * 
      * @param productId the ID of the product to find similar products for
      * @return list of similar product details, ordered by similarity
      * @throws ProductNotFoundException if the product does not exist
      */
     List<ProductDetail> execute(String productId);
+
+    /**
+     * Retrieves the similar products for a given product ID, passing each one
+     * to the consumer, in similarity order, as soon as it and all the products
+     * before it are available.
+     *
+     * @param productId the ID of the product to find similar products for
+     * @param consumer  receives the similar product details, ordered by similarity
+     * @throws ProductNotFoundException if the product does not exist
+     */
+    void stream(String productId, Consumer<ProductDetail> consumer);
 }
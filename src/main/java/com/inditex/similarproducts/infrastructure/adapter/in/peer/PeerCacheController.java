@@ -0,0 +1,98 @@
+package com.inditex.similarproducts.infrastructure.adapter.in.peer;
+
+import com.inditex.similarproducts.infrastructure.adapter.out.peer.PeerCacheProductRepository;
+import com.inditex.similarproducts.infrastructure.adapter.out.peer.PeerCacheSettings;
+import com.inditex.similarproducts.infrastructure.adapter.out.rest.ProductDetailDto;
+import com.inditex.similarproducts.infrastructure.exception.ProductNotFoundException;
+import com.inditex.similarproducts.infrastructure.mapper.ProductMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+
+/**
+ * Internal endpoints through which replicas ask the owner of a product for its
+ * data. Only serves from the owner's cache or the upstream, never forwards.
+ * When {@code peer-cache.secret} is set, requests without it in the
+ * {@value PeerCacheProductRepository#PEER_TOKEN_HEADER} header are answered
+ * with 403. While the peer tier is suspended (warm-up), requests are answered
+ * with 503 and the caller falls back to the upstream.
+ */
+@RestController
+@RequestMapping("/internal/peer/product")
+@ConditionalOnProperty(name = "peer-cache.enabled", havingValue = "true")
+public class PeerCacheController {
+
+    private final PeerCacheProductRepository peerCacheProductRepository;
+    private final ProductMapper productMapper;
+    private final byte[] secret;
+
+    public PeerCacheController(PeerCacheProductRepository peerCacheProductRepository, ProductMapper productMapper,
+            PeerCacheSettings settings) {
+        this.peerCacheProductRepository = peerCacheProductRepository;
+        this.productMapper = productMapper;
+        this.secret = settings.getSecret() != null && !settings.getSecret().isEmpty()
+                ? settings.getSecret().getBytes(StandardCharsets.UTF_8)
+                : null;
+    }
+
+    /**
+     * GET /internal/peer/product/{productId}/similarids
+     * Returns 404 if the product does not exist, with the
+     * {@value PeerCacheProductRepository#CONFIRMED_MISSING_HEADER} header if
+     * the upstream reported it as not found rather than failed.
+     */
+    @GetMapping("/{productId}/similarids")
+    public ResponseEntity<List<String>> getSimilarProductIds(@PathVariable String productId,
+            @RequestHeader(value = PeerCacheProductRepository.PEER_TOKEN_HEADER, required = false) String token) {
+        if (!isAuthorized(token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        if (peerCacheProductRepository.isSuspended()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok(peerCacheProductRepository.getOwnedSimilarProductIds(productId));
+    }
+
+    /**
+     * GET /internal/peer/product/{productId}
+     * Returns 404 if the product detail is not available.
+     */
+    @GetMapping("/{productId}")
+    public ResponseEntity<ProductDetailDto> getProductDetail(@PathVariable String productId,
+            @RequestHeader(value = PeerCacheProductRepository.PEER_TOKEN_HEADER, required = false) String token) {
+        if (!isAuthorized(token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        if (peerCacheProductRepository.isSuspended()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return peerCacheProductRepository.getOwnedProductDetail(productId)
+                .map(productMapper::toDetailDto)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @ExceptionHandler(ProductNotFoundException.class)
+    public ResponseEntity<Void> handleProductNotFound(ProductNotFoundException ex) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(HttpStatus.NOT_FOUND);
+        if (ex.isConfirmed()) {
+            response.header(PeerCacheProductRepository.CONFIRMED_MISSING_HEADER, "true");
+        }
+        return response.build();
+    }
+
+    private boolean isAuthorized(String token) {
+        return secret == null
+                || (token != null && MessageDigest.isEqual(secret, token.getBytes(StandardCharsets.UTF_8)));
+    }
+}
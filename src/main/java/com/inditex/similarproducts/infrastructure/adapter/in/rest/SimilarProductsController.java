@@ -1,21 +1,35 @@
 package com.inditex.similarproducts.infrastructure.adapter.in.rest;
 
+import com.inditex.similarproducts.application.timing.RequestTimings;
 import com.inditex.similarproducts.domain.model.ProductDetail;
 import com.inditex.similarproducts.domain.port.in.GetSimilarProductsUseCase;
+import com.inditex.similarproducts.infrastructure.cache.MissingProductCache;
+import com.inditex.similarproducts.infrastructure.cache.StaleRetainingCaffeineCache;
+import com.inditex.similarproducts.infrastructure.exception.ProductNotFoundException;
+import com.inditex.similarproducts.infrastructure.exception.ServiceOverloadedException;
+import com.inditex.similarproducts.infrastructure.observability.CacheOutcome;
+import com.inditex.similarproducts.infrastructure.prefetch.SimilarProductsPrefetcher;
+import com.inditex.similarproducts.infrastructure.resilience.LoadShedder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.validation.annotation.Validated;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.Pattern;
 
-import com.inditex.similarproducts.infrastructure.mapper.ProductMapper;
+import java.io.IOException;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * REST controller for similar products endpoint.
@@ -27,33 +41,135 @@ import java.util.stream.Collectors;
 public class SimilarProductsController {
 
     private static final Logger logger = LoggerFactory.getLogger(SimilarProductsController.class);
+    private static final String STALE_WARNING = "110 - \"Response is Stale\"";
 
     private final GetSimilarProductsUseCase getSimilarProductsUseCase;
-    private final ProductMapper productMapper;
+    private final SimilarProductsResponseEncoder responseEncoder;
+    private final LoadShedder loadShedder;
+    private final StaleRetainingCaffeineCache similarProductsCache;
+    private final MissingProductCache missingProductCache;
+    private final SimilarProductsPrefetcher prefetcher;
+    private final int streamThreshold;
 
-    public SimilarProductsController(GetSimilarProductsUseCase getSimilarProductsUseCase, ProductMapper productMapper) {
+    public SimilarProductsController(GetSimilarProductsUseCase getSimilarProductsUseCase,
+            SimilarProductsResponseEncoder responseEncoder, LoadShedder loadShedder,
+            StaleRetainingCaffeineCache similarProductsCache, MissingProductCache missingProductCache,
+            SimilarProductsPrefetcher prefetcher,
+            @Value("${streaming.threshold:32}") int streamThreshold) {
         this.getSimilarProductsUseCase = getSimilarProductsUseCase;
-        this.productMapper = productMapper;
+        this.responseEncoder = responseEncoder;
+        this.loadShedder = loadShedder;
+        this.similarProductsCache = similarProductsCache;
+        this.missingProductCache = missingProductCache;
+        this.prefetcher = prefetcher;
+        this.streamThreshold = streamThreshold;
     }
 
     /**
      * GET /product/{productId}/similar
      * Returns the list of similar products for a given product ID.
+     * Products recently reported as not found are answered with 404 without
+     * calling the external API.
+     * When the service is overloaded, the request is answered from the cache,
+     * even if the entry has expired, or rejected with 503.
+     * The response is encoded as JSON, CBOR or Smile depending on the Accept
+     * header, and the first returned products are prefetched in the background.
+     * <p>
+     * Responses are cached unless they hold more than
+     * {@code streaming.threshold} products: those are streamed instead, each
+     * product written as soon as it and the ones before it are available,
+     * without a Server-Timing header.
+     * </p>
+     * The cache outcome (hit, stale or miss) is recorded on the request for
+     * the access log.
      *
      * @param productId the ID of the product. Must be numeric.
-     * @return list of similar product details
+     * @param accept    the Accept header, if any
+     * @param request   the request, on which the cache outcome is recorded
+     * @param response  the response, written directly when streaming
+     * @return list of similar product details, encoded, or {@code null} if the
+     *         response was streamed
      */
-    @GetMapping("/{productId}/similar")
-    public ResponseEntity<List<ProductResponseDto>> getSimilarProducts(
-            @PathVariable @NotBlank(message = "Product ID must not be blank") @Pattern(regexp = "^[0-9]+$", message = "Product ID must be numeric") String productId) {
-        logger.info("Received request for similar products of product ID: {}", productId);
-
-        List<ProductDetail> similarProducts = getSimilarProductsUseCase.execute(productId);
-        List<ProductResponseDto> response = similarProducts.stream()
-                .map(productMapper::toResponseDto)
-                .collect(Collectors.toList());
-
-        logger.info("Returning {} similar products for product ID: {}", response.size(), productId);
-        return ResponseEntity.ok(response);
+    @SuppressWarnings("unchecked")
+    @GetMapping(value = "/{productId}/similar", produces = {
+            MediaType.APPLICATION_JSON_VALUE,
+            MediaType.APPLICATION_CBOR_VALUE,
+            SimilarProductsResponseEncoder.APPLICATION_SMILE_VALUE })
+    public ResponseEntity<byte[]> getSimilarProducts(
+            @PathVariable @NotBlank(message = "Product ID must not be blank") @Pattern(regexp = "^[0-9]+$", message = "Product ID must be numeric") String productId,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        logger.debug("Received request for similar products of product ID: {}", productId);
+        prefetcher.recordRequest(productId);
+
+        if (missingProductCache.isKnownMissing(productId)) {
+            throw new ProductNotFoundException(productId);
+        }
+
+        MediaType mediaType = responseEncoder.selectMediaType(accept);
+        if (!loadShedder.tryAcquire()) {
+            return getDegradedSimilarProducts(productId, mediaType, request);
+        }
+
+        List<ProductDetail> similarProducts;
+        StreamingSimilarProductsResponse streamed = null;
+        try {
+            Cache.ValueWrapper cached = similarProductsCache.get(productId);
+            if (cached != null) {
+                CacheOutcome.HIT.record(request);
+                similarProducts = (List<ProductDetail>) cached.get();
+            } else {
+                CacheOutcome.MISS.record(request);
+                streamed = new StreamingSimilarProductsResponse(response, mediaType, responseEncoder,
+                        streamThreshold);
+                getSimilarProductsUseCase.stream(productId, streamed);
+                similarProducts = streamed.getBuffered();
+                if (streamed.isStreaming()) {
+                    streamed.finish();
+                } else {
+                    similarProductsCache.put(productId, similarProducts);
+                }
+            }
+        } finally {
+            loadShedder.release(RequestTimings.current().get(RequestTimings.QUEUE));
+        }
+        prefetcher.prefetch(similarProducts);
+        if (streamed != null && streamed.isStreaming()) {
+            logger.debug("Streamed similar products for product ID: {}", productId);
+            return null;
+        }
+
+        logger.debug("Returning {} similar products for product ID: {}", similarProducts.size(), productId);
+        return ResponseEntity.ok()
+                .contentType(mediaType)
+                .body(responseEncoder.encode(similarProducts, mediaType));
+    }
+
+    /**
+     * Answers a shed request from the cache, including expired-but-retained
+     * entries, or rejects it with a {@link ServiceOverloadedException}.
+     */
+    @SuppressWarnings("unchecked")
+    private ResponseEntity<byte[]> getDegradedSimilarProducts(String productId, MediaType mediaType,
+            HttpServletRequest request) {
+        StaleRetainingCaffeineCache.Retained retained = similarProductsCache.getRetained(productId);
+        if (retained == null) {
+            loadShedder.recordRejected();
+            throw new ServiceOverloadedException(loadShedder.getRetryAfter());
+        }
+
+        byte[] body = responseEncoder.encode((List<ProductDetail>) retained.get(), mediaType);
+        if (!retained.isStale()) {
+            CacheOutcome.HIT.record(request);
+            loadShedder.recordCached();
+            return ResponseEntity.ok().contentType(mediaType).body(body);
+        }
+        CacheOutcome.STALE.record(request);
+        loadShedder.recordStale();
+        logger.debug("Serving stale similar products for product ID: {}", productId);
+        return ResponseEntity.ok()
+                .contentType(mediaType)
+                .header(HttpHeaders.WARNING, STALE_WARNING)
+                .body(body);
     }
 }
@@ -0,0 +1,158 @@
+package com.inditex.similarproducts.infrastructure.adapter.in.rest;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.inditex.similarproducts.domain.model.ProductDetail;
+import com.inditex.similarproducts.infrastructure.mapper.ProductMapper;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Encodes similar products responses as JSON, CBOR or Smile.
+ * <p>
+ * Encoded bodies are cached per result list instance and encoding. The use
+ * case returns the very list instance held by the response cache, so each
+ * cached result is encoded at most once per encoding and its encoded forms are
+ * released together with it (weak keys, compared by identity).
+ * </p>
+ * <p>
+ * The CBOR and Smile mappers are built from the Boot-configured
+ * {@link Jackson2ObjectMapperBuilder}, so {@code spring.jackson.*} settings
+ * apply to every encoding. Error bodies are encoded the same way, uncached.
+ * </p>
+ * Long lists can also be written incrementally with
+ * {@link #openArray(OutputStream, MediaType)}.
+ */
+@Component
+public class SimilarProductsResponseEncoder {
+
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+    public static final MediaType APPLICATION_SMILE = MediaType.parseMediaType(APPLICATION_SMILE_VALUE);
+
+    private final Map<MediaType, ObjectMapper> mappers = new LinkedHashMap<>();
+    private final ProductMapper productMapper;
+    private final Cache<List<ProductDetail>, Map<MediaType, byte[]>> encodedResponses;
+
+    public SimilarProductsResponseEncoder(ObjectMapper objectMapper, Jackson2ObjectMapperBuilder objectMapperBuilder,
+            ProductMapper productMapper) {
+        // JSON first: it is the default when the client accepts anything
+        mappers.put(MediaType.APPLICATION_JSON, objectMapper);
+        mappers.put(MediaType.APPLICATION_CBOR, objectMapperBuilder.factory(new CBORFactory()).build());
+        mappers.put(APPLICATION_SMILE, objectMapperBuilder.factory(new SmileFactory()).build());
+        this.productMapper = productMapper;
+        this.encodedResponses = Caffeine.newBuilder()
+                .weakKeys()
+                .build();
+    }
+
+    /**
+     * Selects the encoding for the given Accept header, defaulting to JSON.
+     */
+    public MediaType selectMediaType(String accept) {
+        if (!StringUtils.hasText(accept)) {
+            return MediaType.APPLICATION_JSON;
+        }
+        List<MediaType> acceptable = MediaType.parseMediaTypes(accept);
+        MediaType.sortBySpecificityAndQuality(acceptable);
+        for (MediaType mediaType : acceptable) {
+            if (mediaType.getQualityValue() <= 0) {
+                continue;
+            }
+            for (MediaType supported : mappers.keySet()) {
+                if (mediaType.isCompatibleWith(supported)) {
+                    return supported;
+                }
+            }
+        }
+        return MediaType.APPLICATION_JSON;
+    }
+
+    /**
+     * Returns the encoded response body for the given products.
+     */
+    public byte[] encode(List<ProductDetail> similarProducts, MediaType mediaType) {
+        return encodedResponses.get(similarProducts, products -> new ConcurrentHashMap<>())
+                .computeIfAbsent(mediaType, type -> write(mappers.get(type), similarProducts));
+    }
+
+    /**
+     * Returns the encoded body of an error response.
+     *
+     * @param mediaType an encoding returned by {@link #selectMediaType(String)}
+     */
+    public byte[] encodeError(Map<String, Object> body, MediaType mediaType) {
+        try {
+            return mappers.get(mediaType).writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not encode error response", e);
+        }
+    }
+
+    /**
+     * Starts an array of products written incrementally to the given stream.
+     *
+     * @param mediaType an encoding returned by {@link #selectMediaType(String)}
+     */
+    public ArrayWriter openArray(OutputStream out, MediaType mediaType) throws IOException {
+        return new ArrayWriter(mappers.get(mediaType).writer()
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .writeValuesAsArray(out));
+    }
+
+    private byte[] write(ObjectMapper mapper, List<ProductDetail> similarProducts) {
+        List<ProductResponseDto> response = similarProducts.stream()
+                .map(productMapper::toResponseDto)
+                .collect(Collectors.toList());
+        try {
+            return mapper.writeValueAsBytes(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not encode similar products response", e);
+        }
+    }
+
+    /**
+     * An array of products being written: each product is encoded when
+     * written and reaches the client on {@link #flush()}. Closing ends the
+     * array without closing the underlying stream.
+     */
+    public final class ArrayWriter implements Closeable {
+
+        private final SequenceWriter writer;
+
+        private ArrayWriter(SequenceWriter writer) {
+            this.writer = writer;
+        }
+
+        public void write(ProductDetail productDetail) throws IOException {
+            writer.write(productMapper.toResponseDto(productDetail));
+        }
+
+        public void flush() throws IOException {
+            writer.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.close();
+        }
+    }
+}
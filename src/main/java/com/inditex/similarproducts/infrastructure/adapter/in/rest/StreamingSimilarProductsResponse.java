@@ -0,0 +1,90 @@
+package com.inditex.similarproducts.infrastructure.adapter.in.rest;
+
+import com.inditex.similarproducts.domain.model.ProductDetail;
+import org.springframework.http.MediaType;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Receives the similar products of one request, in order, and switches to
+ * streaming them once there are more than {@code threshold}.
+ * <p>
+ * Up to the threshold the products are only buffered, so short lists are
+ * answered and cached as a whole. The first product past the threshold
+ * commits the response: the buffered products are written as the start of
+ * the array, and every later product is written and flushed as soon as it is
+ * received. Only the buffered products are kept.
+ * </p>
+ */
+final class StreamingSimilarProductsResponse implements Consumer<ProductDetail> {
+
+    private final HttpServletResponse response;
+    private final MediaType mediaType;
+    private final SimilarProductsResponseEncoder responseEncoder;
+    private final int threshold;
+    private final List<ProductDetail> buffered = new ArrayList<>();
+    private SimilarProductsResponseEncoder.ArrayWriter writer;
+
+    StreamingSimilarProductsResponse(HttpServletResponse response, MediaType mediaType,
+            SimilarProductsResponseEncoder responseEncoder, int threshold) {
+        this.response = response;
+        this.mediaType = mediaType;
+        this.responseEncoder = responseEncoder;
+        this.threshold = threshold;
+    }
+
+    @Override
+    public void accept(ProductDetail productDetail) {
+        try {
+            if (writer != null) {
+                writer.write(productDetail);
+                writer.flush();
+                return;
+            }
+            buffered.add(productDetail);
+            if (buffered.size() > threshold) {
+                start();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns true if the response has been committed and is being streamed.
+     */
+    boolean isStreaming() {
+        return writer != null;
+    }
+
+    /**
+     * Returns every product received if the response is not being streamed,
+     * otherwise the first ones.
+     */
+    List<ProductDetail> getBuffered() {
+        return buffered;
+    }
+
+    /**
+     * Ends a streamed response.
+     */
+    void finish() throws IOException {
+        writer.close();
+        response.flushBuffer();
+    }
+
+    private void start() throws IOException {
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(mediaType.toString());
+        writer = responseEncoder.openArray(response.getOutputStream(), mediaType);
+        for (ProductDetail productDetail : buffered) {
+            writer.write(productDetail);
+        }
+        writer.flush();
+    }
+}
@@ -0,0 +1,251 @@
+package com.inditex.similarproducts.infrastructure.adapter.out.peer;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.inditex.similarproducts.application.timing.RequestTimings;
+import com.inditex.similarproducts.domain.model.ProductDetail;
+import com.inditex.similarproducts.domain.port.out.ProductRepositoryPort;
+import com.inditex.similarproducts.infrastructure.adapter.out.rest.ProductDetailDto;
+import com.inditex.similarproducts.infrastructure.cache.MissingProductCache;
+import com.inditex.similarproducts.infrastructure.exception.ProductNotFoundException;
+import com.inditex.similarproducts.infrastructure.mapper.ProductMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Peer cache tier in front of the external API, groupcache-style.
+ * <p>
+ * Replicas are arranged on a {@link ConsistentHashRing} by product ID. Each
+ * product is owned by one replica, which is the only one calling the upstream
+ * for it and caching the result. Other replicas ask the owner on a miss and
+ * fall back to the upstream if the owner cannot be reached. A fraction of the
+ * values fetched from peers is also kept in a small, short-lived hot cache so
+ * that very popular products do not all funnel through their owner.
+ * </p>
+ * <p>
+ * A product is only remembered as missing when its owner confirms that the
+ * upstream reported it as not found. An owner that cannot reach the upstream
+ * also answers 404, without the confirmation.
+ * </p>
+ * <p>
+ * At most {@code peer-cache.max-waits-per-owner} requests wait for the same
+ * owner at a time; the others call the upstream directly, so a slow owner
+ * cannot tie up every request thread.
+ * </p>
+ * While {@link #suspend() suspended}, the tier is skipped: products are loaded
+ * from the upstream directly, without caching, and peer requests are refused.
+ */
+public class PeerCacheProductRepository implements ProductRepositoryPort {
+
+    private static final Logger logger = LoggerFactory.getLogger(PeerCacheProductRepository.class);
+    private static final String PEER_PATH = "/internal/peer/product/";
+
+    /**
+     * Header carrying the {@code peer-cache.secret} on replica-to-replica calls.
+     */
+    public static final String PEER_TOKEN_HEADER = "X-Peer-Token";
+
+    /**
+     * Header with which an owner marks a 404 the upstream actually reported,
+     * as opposed to one caused by an upstream failure.
+     */
+    public static final String CONFIRMED_MISSING_HEADER = "X-Product-Missing";
+
+    private final ProductRepositoryPort upstream;
+    private final ConsistentHashRing ring;
+    private final String self;
+    private final RestTemplate peerClient;
+    private final ProductMapper productMapper;
+    private final MissingProductCache missingProductCache;
+    private final double hotFraction;
+    private final int maxWaitsPerOwner;
+    private final ConcurrentMap<String, Semaphore> ownerWaits = new ConcurrentHashMap<>();
+
+    private final Cache<String, List<String>> ownedSimilarIds;
+    private final Cache<String, Optional<ProductDetail>> ownedDetails;
+    private final Cache<String, List<String>> hotSimilarIds;
+    private final Cache<String, ProductDetail> hotDetails;
+    private volatile boolean suspended;
+
+    public PeerCacheProductRepository(
+            ProductRepositoryPort upstream,
+            ConsistentHashRing ring,
+            String self,
+            RestTemplate peerClient,
+            ProductMapper productMapper,
+            MissingProductCache missingProductCache,
+            PeerCacheSettings settings) {
+        this.upstream = upstream;
+        this.ring = ring;
+        this.self = self;
+        this.peerClient = peerClient;
+        this.productMapper = productMapper;
+        this.missingProductCache = missingProductCache;
+        this.hotFraction = settings.getHotFraction();
+        this.maxWaitsPerOwner = settings.getMaxWaitsPerOwner();
+        this.ownedSimilarIds = newCache(settings.getTtl(), settings.getMaximumSize());
+        this.ownedDetails = newCache(settings.getTtl(), settings.getMaximumSize());
+        this.hotSimilarIds = newCache(settings.getHotTtl(), settings.getHotMaximumSize());
+        this.hotDetails = newCache(settings.getHotTtl(), settings.getHotMaximumSize());
+    }
+
+    @Override
+    public List<String> getSimilarProductIds(String productId) {
+        if (suspended) {
+            return upstream.getSimilarProductIds(productId);
+        }
+        String owner = ring.ownerOf(productId);
+        if (self.equals(owner)) {
+            return getOwnedSimilarProductIds(productId);
+        }
+
+        List<String> hot = hotSimilarIds.getIfPresent(productId);
+        if (hot != null) {
+            return hot;
+        }
+
+        Semaphore waits = ownerWaits(owner);
+        if (!waits.tryAcquire()) {
+            logger.debug("Peer {} busy for similar IDs of {}, calling upstream", owner, productId);
+            return upstream.getSimilarProductIds(productId);
+        }
+        long start = System.nanoTime();
+        try {
+            List<String> similarIds = peerClient.exchange(
+                    owner + PEER_PATH + productId + "/similarids",
+                    HttpMethod.GET,
+                    null,
+                    new ParameterizedTypeReference<List<String>>() {
+                    }).getBody();
+            List<String> result = similarIds != null ? similarIds : List.of();
+            maybeKeepHot(hotSimilarIds, productId, result);
+            return result;
+        } catch (HttpClientErrorException.NotFound e) {
+            boolean confirmed = e.getResponseHeaders() != null
+                    && e.getResponseHeaders().containsKey(CONFIRMED_MISSING_HEADER);
+            if (confirmed) {
+                missingProductCache.recordMissing(productId);
+            }
+            throw new ProductNotFoundException(productId, confirmed);
+        } catch (Exception e) {
+            logger.warn("Peer {} unavailable for similar IDs of {}, calling upstream: {}", owner, productId,
+                    e.getMessage());
+            return upstream.getSimilarProductIds(productId);
+        } finally {
+            waits.release();
+            RequestTimings.current().add(RequestTimings.PEER, System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public Optional<ProductDetail> getProductDetail(String productId) {
+        if (suspended) {
+            return upstream.getProductDetail(productId);
+        }
+        String owner = ring.ownerOf(productId);
+        if (self.equals(owner)) {
+            return getOwnedProductDetail(productId);
+        }
+
+        ProductDetail hot = hotDetails.getIfPresent(productId);
+        if (hot != null) {
+            return Optional.of(hot);
+        }
+
+        Semaphore waits = ownerWaits(owner);
+        if (!waits.tryAcquire()) {
+            logger.debug("Peer {} busy for product detail {}, calling upstream", owner, productId);
+            return upstream.getProductDetail(productId);
+        }
+        long start = System.nanoTime();
+        try {
+            ProductDetailDto dto = peerClient.getForObject(owner + PEER_PATH + productId, ProductDetailDto.class);
+            if (dto == null) {
+                return Optional.empty();
+            }
+            ProductDetail productDetail = productMapper.toDomain(dto);
+            maybeKeepHot(hotDetails, productId, productDetail);
+            return Optional.of(productDetail);
+        } catch (HttpClientErrorException.NotFound e) {
+            return Optional.empty();
+        } catch (Exception e) {
+            logger.warn("Peer {} unavailable for product detail {}, calling upstream: {}", owner, productId,
+                    e.getMessage());
+            return upstream.getProductDetail(productId);
+        } finally {
+            waits.release();
+            RequestTimings.current().add(RequestTimings.PEER, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Returns the similar product IDs of a product owned by this replica,
+     * loading them from the upstream on a miss. Never forwards to another peer,
+     * so replicas with diverging rings cannot loop.
+     *
+     * @throws ProductNotFoundException if the product does not exist
+     */
+    public List<String> getOwnedSimilarProductIds(String productId) {
+        return ownedSimilarIds.get(productId, upstream::getSimilarProductIds);
+    }
+
+    /**
+     * Returns the detail of a product owned by this replica, loading it from
+     * the upstream on a miss. Never forwards to another peer.
+     */
+    public Optional<ProductDetail> getOwnedProductDetail(String productId) {
+        Optional<ProductDetail> cached = ownedDetails.getIfPresent(productId);
+        if (cached != null) {
+            return cached;
+        }
+        Optional<ProductDetail> productDetail = upstream.getProductDetail(productId);
+        // Empty results may be transient upstream failures, so they are not cached
+        productDetail.ifPresent(detail -> ownedDetails.put(productId, productDetail));
+        return productDetail;
+    }
+
+    /**
+     * Skips the peer tier until {@link #resume()}, e.g. while the warm-up
+     * sends synthetic requests that must neither reach peers nor be cached.
+     */
+    public void suspend() {
+        suspended = true;
+    }
+
+    public void resume() {
+        suspended = false;
+    }
+
+    public boolean isSuspended() {
+        return suspended;
+    }
+
+    private Semaphore ownerWaits(String owner) {
+        return ownerWaits.computeIfAbsent(owner, o -> new Semaphore(maxWaitsPerOwner));
+    }
+
+    private <V> void maybeKeepHot(Cache<String, V> hotCache, String productId, V value) {
+        if (ThreadLocalRandom.current().nextDouble() < hotFraction) {
+            hotCache.put(productId, value);
+        }
+    }
+
+    private static <V> Cache<String, V> newCache(Duration ttl, long maximumSize) {
+        return Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maximumSize)
+                .build();
+    }
+}
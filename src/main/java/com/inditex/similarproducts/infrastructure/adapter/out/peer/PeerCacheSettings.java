@@ -0,0 +1,60 @@
+package com.inditex.similarproducts.infrastructure.adapter.out.peer;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Settings of the peer cache tier ({@code peer-cache.*}).
+ */
+@Data
+@ConfigurationProperties(prefix = "peer-cache")
+public class PeerCacheSettings {
+
+    /**
+     * Base URL under which the other replicas reach this one.
+     */
+    private String self;
+
+    /**
+     * Base URLs of all replicas, this one included.
+     */
+    private List<String> peers = new ArrayList<>();
+
+    private int virtualNodes = 100;
+
+    /**
+     * Timeout for connecting to a peer. An unreachable owner is detected within
+     * it, and the upstream is then called directly.
+     */
+    private Duration connectTimeout = Duration.ofMillis(200);
+
+    /**
+     * Timeout for the answer of a peer. Unset by default, in which case it is
+     * one upstream read timeout plus a margin for the hop (see
+     * {@code PeerCacheConfig}).
+     */
+    private Duration readTimeout;
+
+    /**
+     * Requests that may wait for the same owner at a time. Past it, further
+     * requests call the upstream directly instead of queueing behind a slow
+     * owner.
+     */
+    private int maxWaitsPerOwner = 32;
+
+    /**
+     * Shared secret replicas send in the {@code X-Peer-Token} header. When set,
+     * the internal peer endpoints reject requests without it.
+     */
+    private String secret;
+
+    private Duration ttl = Duration.ofMinutes(10);
+    private long maximumSize = 100_000;
+    private double hotFraction = 0.1;
+    private Duration hotTtl = Duration.ofMinutes(1);
+    private long hotMaximumSize = 1_000;
+}
@@ -0,0 +1,26 @@
+package com.inditex.similarproducts.infrastructure.adapter.out.rest;
+
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+
+/**
+ * Request factory applying the current {@link AdaptiveTimeouts} read timeout
+ * of the target endpoint to every connection.
+ */
+public class AdaptiveTimeoutRequestFactory extends SimpleClientHttpRequestFactory {
+
+    private final AdaptiveTimeouts adaptiveTimeouts;
+
+    public AdaptiveTimeoutRequestFactory(AdaptiveTimeouts adaptiveTimeouts) {
+        this.adaptiveTimeouts = adaptiveTimeouts;
+    }
+
+    @Override
+    protected void prepareConnection(HttpURLConnection connection, String httpMethod) throws IOException {
+        super.prepareConnection(connection, httpMethod);
+        AdaptiveTimeouts.Endpoint endpoint = AdaptiveTimeouts.Endpoint.of(connection.getURL().getPath());
+        connection.setReadTimeout(adaptiveTimeouts.readTimeoutMillis(endpoint));
+    }
+}
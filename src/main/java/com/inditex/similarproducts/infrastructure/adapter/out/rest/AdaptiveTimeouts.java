@@ -0,0 +1,208 @@
+package com.inditex.similarproducts.infrastructure.adapter.out.rest;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Per-endpoint read timeouts derived from recent upstream latencies.
+ * <p>
+ * The timeout of each endpoint is its rolling p99 latency multiplied by
+ * {@code external.api.timeout.adaptive.factor}, clamped between the configured
+ * floor and ceiling. Until enough calls have been observed, the ceiling
+ * ({@code external.api.timeout.read} by default) applies. Calls that time out
+ * are recorded with the timeout in effect, so a slowing upstream raises the
+ * timeout instead of failing every call.
+ * </p>
+ * The factor, floor and ceiling can be changed at runtime with
+ * {@link #reconfigure(double, long, long)}.
+ */
+@Component
+public class AdaptiveTimeouts {
+
+    private static final double PERCENTILE = 0.99;
+    private static final int SUB_WINDOWS = 6;
+    private static final long REFRESH_NANOS = Duration.ofSeconds(1).toNanos();
+
+    /**
+     * External API endpoints with their own latency profile.
+     */
+    public enum Endpoint {
+        SIMILAR_IDS("similarids"),
+        PRODUCT_DETAIL("product");
+
+        private final String name;
+
+        Endpoint(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Classifies a request path of the external API.
+         */
+        public static Endpoint of(String path) {
+            return path.endsWith("/similarids") ? SIMILAR_IDS : PRODUCT_DETAIL;
+        }
+    }
+
+    private final boolean enabled;
+    private final long minSamples;
+    private volatile Limits limits;
+    private final Map<Endpoint, EndpointTimeout> timeouts = new EnumMap<>(Endpoint.class);
+
+    public AdaptiveTimeouts(
+            @Value("${external.api.timeout.adaptive.enabled:true}") boolean enabled,
+            @Value("${external.api.timeout.adaptive.factor:3}") double factor,
+            @Value("${external.api.timeout.adaptive.floor:50}") long floorMillis,
+            @Value("${external.api.timeout.adaptive.ceiling:${external.api.timeout.read:5000}}") long ceilingMillis,
+            @Value("${external.api.timeout.adaptive.window:60s}") Duration window,
+            @Value("${external.api.timeout.adaptive.min-samples:50}") long minSamples,
+            MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.limits = new Limits(factor, floorMillis, ceilingMillis);
+        this.minSamples = minSamples;
+
+        for (Endpoint endpoint : Endpoint.values()) {
+            EndpointTimeout timeout = new EndpointTimeout(new RollingLatencyHistogram(window, SUB_WINDOWS));
+            timeouts.put(endpoint, timeout);
+            Gauge.builder("similarproducts.upstream.timeout", this, t -> t.readTimeoutMillis(endpoint))
+                    .description("Read timeout currently applied to upstream calls")
+                    .tag("endpoint", endpoint.getName())
+                    .baseUnit("milliseconds")
+                    .register(meterRegistry);
+            Gauge.builder("similarproducts.upstream.latency.p99", timeout,
+                            t -> t.p99Nanos < 0 ? -1 : t.p99Nanos / 1_000_000.0)
+                    .description("Rolling p99 latency of upstream calls, -1 until enough samples")
+                    .tag("endpoint", endpoint.getName())
+                    .baseUnit("milliseconds")
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Atomically replaces the factor, floor and ceiling. Timeouts are
+     * recomputed on the next call.
+     */
+    public void reconfigure(double factor, long floorMillis, long ceilingMillis) {
+        this.limits = new Limits(factor, floorMillis, ceilingMillis);
+        timeouts.values().forEach(EndpointTimeout::invalidate);
+    }
+
+    /**
+     * Forgets the recorded latencies, so the ceiling applies again until
+     * enough calls have been observed.
+     */
+    public void reset() {
+        timeouts.values().forEach(timeout -> {
+            timeout.histogram.reset();
+            timeout.invalidate();
+        });
+    }
+
+    /**
+     * Checks adaptive timeout limits without applying them.
+     *
+     * @throws IllegalArgumentException if the limits are invalid
+     */
+    public static void validate(double factor, long floorMillis, long ceilingMillis) {
+        new Limits(factor, floorMillis, ceilingMillis);
+    }
+
+    public double getFactor() {
+        return limits.factor;
+    }
+
+    public long getFloorMillis() {
+        return Duration.ofNanos(limits.floorNanos).toMillis();
+    }
+
+    public long getCeilingMillis() {
+        return Duration.ofNanos(limits.ceilingNanos).toMillis();
+    }
+
+    /**
+     * Returns the read timeout to apply to the next call to an endpoint.
+     */
+    public int readTimeoutMillis(Endpoint endpoint) {
+        return (int) Duration.ofNanos(timeoutNanos(endpoint)).toMillis();
+    }
+
+    /**
+     * Records the latency of a call that completed (successfully or with an
+     * HTTP error response).
+     */
+    public void record(Endpoint endpoint, long nanos) {
+        timeouts.get(endpoint).histogram.record(nanos);
+    }
+
+    /**
+     * Records a call that timed out.
+     */
+    public void recordTimeout(Endpoint endpoint) {
+        record(endpoint, timeoutNanos(endpoint));
+    }
+
+    private long timeoutNanos(Endpoint endpoint) {
+        if (!enabled) {
+            return limits.ceilingNanos;
+        }
+        EndpointTimeout timeout = timeouts.get(endpoint);
+        long now = System.nanoTime();
+        if (now - timeout.refreshedNanos > REFRESH_NANOS) {
+            timeout.refresh(now);
+        }
+        return timeout.timeoutNanos;
+    }
+
+    private final class EndpointTimeout {
+
+        private final RollingLatencyHistogram histogram;
+        private volatile long refreshedNanos = System.nanoTime() - REFRESH_NANOS - 1;
+        private volatile long timeoutNanos = limits.ceilingNanos;
+        private volatile long p99Nanos = -1;
+
+        private EndpointTimeout(RollingLatencyHistogram histogram) {
+            this.histogram = histogram;
+        }
+
+        private void refresh(long now) {
+            Limits current = limits;
+            long p99 = histogram.percentile(PERCENTILE, minSamples);
+            p99Nanos = p99;
+            timeoutNanos = p99 < 0
+                    ? current.ceilingNanos
+                    : Math.max(current.floorNanos, Math.min(current.ceilingNanos, (long) (p99 * current.factor)));
+            refreshedNanos = now;
+        }
+
+        private void invalidate() {
+            refreshedNanos = System.nanoTime() - REFRESH_NANOS - 1;
+        }
+    }
+
+    private static final class Limits {
+
+        private final double factor;
+        private final long floorNanos;
+        private final long ceilingNanos;
+
+        private Limits(double factor, long floorMillis, long ceilingMillis) {
+            if (factor <= 0 || floorMillis < 1 || ceilingMillis < floorMillis) {
+                throw new IllegalArgumentException(
+                        "Adaptive timeout requires factor > 0 and 1 <= floor <= ceiling");
+            }
+            this.factor = factor;
+            this.floorNanos = Duration.ofMillis(floorMillis).toNanos();
+            this.ceilingNanos = Duration.ofMillis(ceilingMillis).toNanos();
+        }
+    }
+}
@@ -1,15 +1,19 @@
 package com.inditex.similarproducts.infrastructure.adapter.out.rest;
 
+import com.inditex.similarproducts.application.timing.RequestTimings;
 import com.inditex.similarproducts.domain.model.ProductDetail;
 import com.inditex.similarproducts.domain.port.out.ProductRepositoryPort;
+import com.inditex.similarproducts.infrastructure.cache.MissingProductCache;
 import com.inditex.similarproducts.infrastructure.mapper.ProductMapper;
 import com.inditex.similarproducts.infrastructure.exception.ProductNotFoundException;
+import com.inditex.similarproducts.infrastructure.observability.UpstreamCallEvent;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import io.github.resilience4j.retry.annotation.Retry;
 import io.github.resilience4j.timelimiter.annotation.TimeLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
@@ -17,30 +21,52 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 
+import java.net.SocketTimeoutException;
 import java.util.List;
 import java.util.Optional;
 
 /**
  * Adapter for accessing product data from external REST API.
- * Implements the ProductRepositoryPort with resilience patterns.
+ * Implements the ProductRepositoryPort with resilience patterns. Every attempt
+ * goes to the replica chosen by the {@link UpstreamBalancer}, so retries
+ * usually land on a different replica.
+ * <p>
+ * Per-call outcomes are only logged at DEBUG: failures are counted per
+ * replica by the balancer, and fallbacks in
+ * {@code similarproducts.upstream.fallbacks}.
+ * </p>
  */
 @Component
 public class ProductRestClientAdapter implements ProductRepositoryPort {
 
     private static final Logger logger = LoggerFactory.getLogger(ProductRestClientAdapter.class);
-    private static final String CIRCUIT_BREAKER_NAME = "productService";
+    /**
+     * Name of the circuit breaker and retry instances guarding the upstream.
+     */
+    public static final String CIRCUIT_BREAKER_NAME = "productService";
 
     private final RestTemplate restTemplate;
-    private final String baseUrl;
+    private final UpstreamBalancer upstreamBalancer;
     private final ProductMapper productMapper;
+    private final MissingProductCache missingProductCache;
+    private final AdaptiveTimeouts adaptiveTimeouts;
+    private final Counter similarIdsFallbackCounter;
+    private final Counter productDetailFallbackCounter;
 
     public ProductRestClientAdapter(
             RestTemplate restTemplate,
-            @Value("${external.api.base-url}") String baseUrl,
-            ProductMapper productMapper) {
+            UpstreamBalancer upstreamBalancer,
+            ProductMapper productMapper,
+            MissingProductCache missingProductCache,
+            AdaptiveTimeouts adaptiveTimeouts,
+            MeterRegistry meterRegistry) {
         this.restTemplate = restTemplate;
-        this.baseUrl = baseUrl;
+        this.upstreamBalancer = upstreamBalancer;
         this.productMapper = productMapper;
+        this.missingProductCache = missingProductCache;
+        this.adaptiveTimeouts = adaptiveTimeouts;
+        this.similarIdsFallbackCounter = fallbackCounter(AdaptiveTimeouts.Endpoint.SIMILAR_IDS, meterRegistry);
+        this.productDetailFallbackCounter = fallbackCounter(AdaptiveTimeouts.Endpoint.PRODUCT_DETAIL, meterRegistry);
     }
 
     /**
@@ -48,19 +74,24 @@ public class ProductRestClientAdapter implements ProductRepositoryPort {
      * <p>
      * This method calls the external API endpoint: GET
      * /product/{productId}/similarids
-     * It is protected by a Circuit Breaker and Retry mechanism.
+     * It is protected by a Circuit Breaker and Retry mechanism. The read timeout
+     * adapts to the recent latency of this endpoint (see
+     * {@link AdaptiveTimeouts}).
      * </p>
      *
      * @param productId the ID of the product
      * @return a list of similar product IDs, or an empty list if fallback is
      *         triggered
-     * @throws ProductNotFoundException if the product does not exist (404)
+     * @throws ProductNotFoundException if the product does not exist (404); the
+     *                                  product is then recorded in the
+     *                                  {@link MissingProductCache}
      */
     @Override
     @CircuitBreaker(name = CIRCUIT_BREAKER_NAME, fallbackMethod = "getSimilarProductIdsFallback")
     @Retry(name = CIRCUIT_BREAKER_NAME)
     public List<String> getSimilarProductIds(String productId) {
-        String url = baseUrl + "/product/" + productId + "/similarids";
+        UpstreamCall call = new UpstreamCall(AdaptiveTimeouts.Endpoint.SIMILAR_IDS, productId);
+        String url = call.baseUrl() + "/product/" + productId + "/similarids";
         logger.debug("Fetching similar product IDs from: {}", url);
 
         try {
@@ -74,14 +105,18 @@ public class ProductRestClientAdapter implements ProductRepositoryPort {
             List<String> similarIds = response.getBody();
             logger.debug("Retrieved {} similar product IDs for product {}",
                     similarIds != null ? similarIds.size() : 0, productId);
+            call.finish("ok");
 
             return similarIds != null ? similarIds : List.of();
 
         } catch (HttpClientErrorException.NotFound e) {
-            logger.warn("Product not found: {}", productId);
+            call.finish("not_found");
+            logger.debug("Product not found: {}", productId);
+            missingProductCache.recordMissing(productId);
             throw new ProductNotFoundException(productId);
         } catch (Exception e) {
-            logger.error("Error fetching similar product IDs for {}: {}", productId, e.getMessage());
+            call.fail(e);
+            logger.debug("Error fetching similar product IDs for {}: {}", productId, e.getMessage());
             throw e;
         }
     }
@@ -90,7 +125,9 @@ public class ProductRestClientAdapter implements ProductRepositoryPort {
      * Retrieves the details of a specific product.
      * <p>
      * This method calls the external API endpoint: GET /product/{productId}
-     * It is protected by a Circuit Breaker and Retry mechanism.
+     * It is protected by a Circuit Breaker and Retry mechanism. The read timeout
+     * adapts to the recent latency of this endpoint (see
+     * {@link AdaptiveTimeouts}).
      * </p>
      *
      * @param productId the ID of the product
@@ -101,17 +138,19 @@ public class ProductRestClientAdapter implements ProductRepositoryPort {
     @CircuitBreaker(name = CIRCUIT_BREAKER_NAME, fallbackMethod = "getProductDetailFallback")
     @Retry(name = CIRCUIT_BREAKER_NAME)
     public Optional<ProductDetail> getProductDetail(String productId) {
-        String url = baseUrl + "/product/" + productId;
+        UpstreamCall call = new UpstreamCall(AdaptiveTimeouts.Endpoint.PRODUCT_DETAIL, productId);
+        String url = call.baseUrl() + "/product/" + productId;
         logger.debug("Fetching product detail from: {}", url);
 
         try {
             ResponseEntity<ProductDetailDto> response = restTemplate.getForEntity(
                     url,
                     ProductDetailDto.class);
+            call.finish("ok");
 
             ProductDetailDto dto = response.getBody();
             if (dto == null) {
-                logger.warn("Received null response for product {}", productId);
+                logger.debug("Received null response for product {}", productId);
                 return Optional.empty();
             }
 
@@ -121,21 +160,28 @@ public class ProductRestClientAdapter implements ProductRepositoryPort {
             return Optional.of(productDetail);
 
         } catch (HttpClientErrorException.NotFound e) {
-            logger.warn("Product detail not found for ID: {}", productId);
+            call.finish("not_found");
+            logger.debug("Product detail not found for ID: {}", productId);
             return Optional.empty();
         } catch (Exception e) {
-            logger.error("Error fetching product detail for {}: {}", productId, e.getMessage());
+            call.fail(e);
+            logger.debug("Error fetching product detail for {}: {}", productId, e.getMessage());
             return Optional.empty();
         }
     }
 
     /**
      * Fallback method for getSimilarProductIds.
-     * Returns empty list when circuit breaker is open or retries are exhausted.
+     * Rethrows a genuine not-found as is; any other failure (circuit breaker
+     * open, retries exhausted) is also reported as not found, unconfirmed.
      */
     private List<String> getSimilarProductIdsFallback(String productId, Exception e) {
-        logger.error("Fallback triggered for getSimilarProductIds({}): {}", productId, e.getMessage());
-        throw new ProductNotFoundException(productId);
+        if (e instanceof ProductNotFoundException) {
+            throw (ProductNotFoundException) e;
+        }
+        similarIdsFallbackCounter.increment();
+        logger.debug("Fallback triggered for getSimilarProductIds({}): {}", productId, e.getMessage());
+        throw new ProductNotFoundException(productId, false);
     }
 
     /**
@@ -143,7 +189,77 @@ public class ProductRestClientAdapter implements ProductRepositoryPort {
      * Returns empty Optional when circuit breaker is open or retries are exhausted.
      */
     private Optional<ProductDetail> getProductDetailFallback(String productId, Exception e) {
-        logger.warn("Fallback triggered for getProductDetail({}): {}", productId, e.getMessage());
+        productDetailFallbackCounter.increment();
+        logger.debug("Fallback triggered for getProductDetail({}): {}", productId, e.getMessage());
         return Optional.empty();
     }
+
+    private static Counter fallbackCounter(AdaptiveTimeouts.Endpoint endpoint, MeterRegistry meterRegistry) {
+        return Counter.builder("similarproducts.upstream.fallbacks")
+                .description("Upstream calls answered by the fallback (circuit breaker open, retries exhausted)")
+                .tag("endpoint", endpoint.getName())
+                .register(meterRegistry);
+    }
+
+    /**
+     * A single upstream attempt on the replica chosen by the balancer.
+     * Measures it: adds its duration to the request timings, the endpoint
+     * latency histogram and the replica statistics, and emits an
+     * {@link UpstreamCallEvent}.
+     */
+    private final class UpstreamCall {
+
+        private final RequestTimings timings = RequestTimings.current();
+        private final long startNanos = System.nanoTime();
+        private final AdaptiveTimeouts.Endpoint endpoint;
+        private final UpstreamBalancer.Replica replica;
+        private final UpstreamCallEvent event;
+        private boolean finished;
+
+        UpstreamCall(AdaptiveTimeouts.Endpoint endpoint, String productId) {
+            this.endpoint = endpoint;
+            this.replica = upstreamBalancer.choose();
+            int attempt = timings.nextAttempt(endpoint.getName() + ":" + productId);
+            this.event = UpstreamCallEvent.start(endpoint.getName(), productId, attempt);
+        }
+
+        String baseUrl() {
+            return replica.getBaseUrl();
+        }
+
+        /**
+         * Finishes a call that got a response from the upstream.
+         */
+        void finish(String outcome) {
+            if (complete(true)) {
+                adaptiveTimeouts.record(endpoint, System.nanoTime() - startNanos);
+                event.finish(outcome);
+            }
+        }
+
+        /**
+         * Finishes a call that failed without a usable response.
+         */
+        void fail(Exception e) {
+            // A 4xx is the caller's problem, not a sign of an unhealthy replica
+            if (complete(e instanceof HttpClientErrorException)) {
+                boolean timeout = e.getCause() instanceof SocketTimeoutException;
+                if (timeout) {
+                    adaptiveTimeouts.recordTimeout(endpoint);
+                }
+                event.finish(timeout ? "timeout" : "error");
+            }
+        }
+
+        private boolean complete(boolean replicaHealthy) {
+            if (finished) {
+                return false;
+            }
+            finished = true;
+            long elapsedNanos = System.nanoTime() - startNanos;
+            timings.add(RequestTimings.UPSTREAM, elapsedNanos);
+            upstreamBalancer.release(replica, elapsedNanos, replicaHealthy);
+            return true;
+        }
+    }
 }
@@ -0,0 +1,117 @@
+package com.inditex.similarproducts.infrastructure.adapter.out.rest;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free latency histogram over a rolling time window.
+ * <p>
+ * Latencies are counted in exponential buckets (about 19% wide, from 100µs
+ * to roughly 100s). The window is split into sub-windows that are reset as
+ * time moves on, so percentiles only reflect recent calls.
+ * </p>
+ */
+class RollingLatencyHistogram {
+
+    private static final int BUCKETS = 80;
+    private static final long[] UPPER_BOUNDS_NANOS = new long[BUCKETS];
+
+    static {
+        for (int i = 0; i < BUCKETS; i++) {
+            UPPER_BOUNDS_NANOS[i] = (long) (100_000 * Math.pow(2, i / 4.0));
+        }
+    }
+
+    private final Window[] windows;
+    private final long windowNanos;
+
+    RollingLatencyHistogram(Duration window, int subWindows) {
+        this.windows = new Window[subWindows];
+        for (int i = 0; i < subWindows; i++) {
+            windows[i] = new Window();
+        }
+        this.windowNanos = window.toNanos() / subWindows;
+    }
+
+    void record(long nanos) {
+        long epoch = Math.floorDiv(System.nanoTime(), windowNanos);
+        Window window = windows[(int) Math.floorMod(epoch, (long) windows.length)];
+        window.rollTo(epoch);
+        window.counts.incrementAndGet(bucketOf(nanos));
+    }
+
+    /**
+     * Forgets every recorded latency.
+     */
+    void reset() {
+        for (Window window : windows) {
+            window.reset();
+        }
+    }
+
+    /**
+     * Returns the upper bound of the bucket holding the given percentile, or -1
+     * if fewer than {@code minSamples} latencies were recorded in the window.
+     */
+    long percentile(double percentile, long minSamples) {
+        long currentEpoch = Math.floorDiv(System.nanoTime(), windowNanos);
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (Window window : windows) {
+            long epoch = window.epoch;
+            if (epoch == Long.MIN_VALUE || currentEpoch - epoch >= windows.length) {
+                continue;
+            }
+            for (int i = 0; i < BUCKETS; i++) {
+                long count = window.counts.get(i);
+                counts[i] += count;
+                total += count;
+            }
+        }
+        if (total < minSamples || total == 0) {
+            return -1;
+        }
+
+        long rank = (long) Math.ceil(percentile * total);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return UPPER_BOUNDS_NANOS[i];
+            }
+        }
+        return UPPER_BOUNDS_NANOS[BUCKETS - 1];
+    }
+
+    private static int bucketOf(long nanos) {
+        int index = Arrays.binarySearch(UPPER_BOUNDS_NANOS, nanos);
+        int bucket = index >= 0 ? index : -index - 1;
+        return Math.min(bucket, BUCKETS - 1);
+    }
+
+    private static final class Window {
+
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+        private volatile long epoch = Long.MIN_VALUE;
+
+        private void rollTo(long newEpoch) {
+            if (epoch == newEpoch) {
+                return;
+            }
+            synchronized (this) {
+                if (epoch != newEpoch) {
+                    for (int i = 0; i < BUCKETS; i++) {
+                        counts.set(i, 0);
+                    }
+                    epoch = newEpoch;
+                }
+            }
+        }
+
+        private synchronized void reset() {
+            // Counts are cleared when the window is next rolled to
+            epoch = Long.MIN_VALUE;
+        }
+    }
+}
@@ -0,0 +1,333 @@
+package com.inditex.similarproducts.infrastructure.adapter.out.rest;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Client-side load balancer across the external API replicas
+ * ({@code external.api.base-urls}).
+ * <p>
+ * Each call goes to the better of two randomly picked replicas
+ * (power of two choices), scored by their latency EWMA times their in-flight
+ * calls. A failed call counts as a {@value #FAILURE_PENALTY_MILLIS} ms call.
+ * A replica without a latency measurement yet is scored at the average EWMA
+ * of the measured replicas, or at the configured read timeout
+ * ({@code external.api.timeout.read}) while none is measured, so it neither
+ * takes every choice nor starves.
+ * </p>
+ * <p>
+ * A replica failing {@code external.api.balancer.failure-threshold} calls in a
+ * row is ejected for {@code external.api.balancer.ejection-time}, doubled on
+ * every consecutive ejection up to {@code max-ejection-time}. At most
+ * {@code max-ejection-percent} of the replicas are ejected at a time. A
+ * returning replica is unmeasured again, so it starts from the average
+ * latency of the others, and its share of traffic ramps up over
+ * {@code external.api.balancer.slow-start}.
+ * </p>
+ * Every call can be diverted to another base URL with {@link #divert(String)},
+ * which the warm-up uses to drive the real adapter against a local stub.
+ */
+@Component
+public class UpstreamBalancer {
+
+    private static final Logger logger = LoggerFactory.getLogger(UpstreamBalancer.class);
+
+    private static final double EWMA_WEIGHT = 0.2;
+    private static final long FAILURE_PENALTY_MILLIS = 1000;
+    private static final long FAILURE_PENALTY_NANOS = Duration.ofMillis(FAILURE_PENALTY_MILLIS).toNanos();
+    private static final double MIN_SLOW_START_WEIGHT = 0.1;
+    private static final int MAX_BACKOFF_SHIFT = 16;
+
+    private final List<Replica> replicas;
+    private final int failureThreshold;
+    private final long ejectionNanos;
+    private final long maxEjectionNanos;
+    private final int maxEjected;
+    private final long slowStartNanos;
+    private final long initialLatencyNanos;
+    private volatile Replica diversion;
+
+    public UpstreamBalancer(
+            @Value("${external.api.base-urls:${external.api.base-url}}") String[] baseUrls,
+            @Value("${external.api.balancer.failure-threshold:5}") int failureThreshold,
+            @Value("${external.api.balancer.ejection-time:10s}") Duration ejectionTime,
+            @Value("${external.api.balancer.max-ejection-time:5m}") Duration maxEjectionTime,
+            @Value("${external.api.balancer.max-ejection-percent:50}") int maxEjectionPercent,
+            @Value("${external.api.balancer.slow-start:30s}") Duration slowStart,
+            @Value("${external.api.timeout.read:5000}") long readTimeoutMillis,
+            MeterRegistry meterRegistry) {
+        List<String> urls = Arrays.stream(baseUrls)
+                .map(String::trim)
+                .filter(url -> !url.isEmpty())
+                .map(url -> url.endsWith("/") ? url.substring(0, url.length() - 1) : url)
+                .distinct()
+                .collect(Collectors.toList());
+        if (urls.isEmpty()) {
+            throw new IllegalArgumentException("At least one external API base URL is required");
+        }
+        this.failureThreshold = failureThreshold;
+        this.ejectionNanos = ejectionTime.toNanos();
+        this.maxEjectionNanos = maxEjectionTime.toNanos();
+        this.maxEjected = urls.size() * maxEjectionPercent / 100;
+        this.slowStartNanos = slowStart.toNanos();
+        this.initialLatencyNanos = Duration.ofMillis(readTimeoutMillis).toNanos();
+
+        List<Replica> created = new ArrayList<>();
+        for (String url : urls) {
+            created.add(new Replica(url, meterRegistry));
+        }
+        this.replicas = Collections.unmodifiableList(created);
+    }
+
+    /**
+     * Chooses the replica for the next call and counts the call as in flight.
+     * Every call must be completed with {@link #release(Replica, long, boolean)}.
+     */
+    public Replica choose() {
+        Replica diverted = diversion;
+        if (diverted != null) {
+            diverted.inFlight.incrementAndGet();
+            return diverted;
+        }
+        long now = System.nanoTime();
+        List<Replica> available = new ArrayList<>(replicas.size());
+        for (Replica replica : replicas) {
+            if (replica.isAvailable(now)) {
+                available.add(replica);
+            }
+        }
+        Replica chosen;
+        if (available.isEmpty()) {
+            // Every candidate is ejected: fail open on the one returning first
+            chosen = replicas.stream()
+                    .min((a, b) -> Long.compare(a.ejectedUntilNanos, b.ejectedUntilNanos))
+                    .orElseThrow();
+        } else if (available.size() == 1) {
+            chosen = available.get(0);
+        } else {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int first = random.nextInt(available.size());
+            int second = random.nextInt(available.size() - 1);
+            if (second >= first) {
+                second++;
+            }
+            Replica a = available.get(first);
+            Replica b = available.get(second);
+            chosen = a.score(now) <= b.score(now) ? a : b;
+        }
+        chosen.inFlight.incrementAndGet();
+        return chosen;
+    }
+
+    /**
+     * Completes a call started with {@link #choose()}.
+     *
+     * @param latencyNanos how long the call took
+     * @param success      false if the replica failed (server error, timeout,
+     *                     connection failure)
+     */
+    public void release(Replica replica, long latencyNanos, boolean success) {
+        replica.inFlight.decrementAndGet();
+        if (success) {
+            replica.successCounter.increment();
+            replica.onSuccess(latencyNanos);
+        } else {
+            replica.failureCounter.increment();
+            if (replica.onFailure(latencyNanos) && tryEject(replica)) {
+                logger.warn("Ejected upstream replica {} for {} ms", replica.baseUrl,
+                        Duration.ofNanos(replica.ejectedUntilNanos - System.nanoTime()).toMillis());
+            }
+        }
+    }
+
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    /**
+     * Sends every call to the given base URL until {@link #restore()}. The
+     * diverted calls do not affect the statistics or metrics of the replicas.
+     */
+    public void divert(String baseUrl) {
+        diversion = new Replica(baseUrl, new SimpleMeterRegistry());
+    }
+
+    /**
+     * Ends a {@link #divert(String) diversion}.
+     */
+    public void restore() {
+        diversion = null;
+    }
+
+    private synchronized boolean tryEject(Replica replica) {
+        long now = System.nanoTime();
+        long ejected = replicas.stream().filter(r -> r.isEjected(now)).count();
+        if (replica.isEjected(now) || ejected >= maxEjected) {
+            return false;
+        }
+        replica.eject(now);
+        return true;
+    }
+
+    /**
+     * An external API replica and its balancing state.
+     */
+    public final class Replica {
+
+        private final String baseUrl;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final Counter successCounter;
+        private final Counter failureCounter;
+        private final Counter ejectionCounter;
+        private volatile double ewmaNanos;
+        private volatile boolean measured;
+        private volatile long ejectedUntilNanos;
+        private volatile long reintroducedNanos;
+        private volatile boolean ejected;
+        private int consecutiveFailures;
+        private int ejections;
+
+        private Replica(String baseUrl, MeterRegistry meterRegistry) {
+            this.baseUrl = baseUrl;
+            this.reintroducedNanos = System.nanoTime() - slowStartNanos;
+            Gauge.builder("similarproducts.upstream.replica.inflight", inFlight, AtomicInteger::get)
+                    .description("Calls in flight to an upstream replica")
+                    .tag("replica", baseUrl)
+                    .register(meterRegistry);
+            Gauge.builder("similarproducts.upstream.replica.latency.ewma", this, r -> r.latencyNanos() / 1_000_000.0)
+                    .description("Latency EWMA of an upstream replica, failures counted as "
+                            + FAILURE_PENALTY_MILLIS + " ms")
+                    .tag("replica", baseUrl)
+                    .baseUnit("milliseconds")
+                    .register(meterRegistry);
+            Gauge.builder("similarproducts.upstream.replica.ejected", this,
+                            r -> r.isEjected(System.nanoTime()) ? 1 : 0)
+                    .description("Whether an upstream replica is currently ejected")
+                    .tag("replica", baseUrl)
+                    .register(meterRegistry);
+            this.successCounter = requestCounter("success", meterRegistry);
+            this.failureCounter = requestCounter("failure", meterRegistry);
+            this.ejectionCounter = Counter.builder("similarproducts.upstream.replica.ejections")
+                    .description("Times an upstream replica was ejected")
+                    .tag("replica", baseUrl)
+                    .register(meterRegistry);
+        }
+
+        public String getBaseUrl() {
+            return baseUrl;
+        }
+
+        public int getInFlight() {
+            return inFlight.get();
+        }
+
+        public boolean isEjected(long now) {
+            return ejected && now - ejectedUntilNanos < 0;
+        }
+
+        private Counter requestCounter(String outcome, MeterRegistry meterRegistry) {
+            return Counter.builder("similarproducts.upstream.replica.requests")
+                    .description("Calls to an upstream replica by outcome")
+                    .tag("replica", baseUrl)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry);
+        }
+
+        /**
+         * Returns whether the replica can take calls, reintroducing it if its
+         * ejection has just ended.
+         */
+        private boolean isAvailable(long now) {
+            if (!ejected) {
+                return true;
+            }
+            if (isEjected(now)) {
+                return false;
+            }
+            reintroduce(now);
+            return true;
+        }
+
+        private synchronized void reintroduce(long now) {
+            if (!ejected) {
+                return;
+            }
+            measured = false;
+            consecutiveFailures = 0;
+            reintroducedNanos = now;
+            ejected = false;
+            logger.info("Reintroducing upstream replica {}", baseUrl);
+        }
+
+        /**
+         * Lower is better: latency EWMA times the calls in flight, divided by
+         * the slow-start weight.
+         */
+        private double score(long now) {
+            double weight = Math.max(MIN_SLOW_START_WEIGHT,
+                    Math.min(1.0, (double) (now - reintroducedNanos) / Math.max(1, slowStartNanos)));
+            return latencyNanos() * (inFlight.get() + 1) / weight;
+        }
+
+        /**
+         * Returns the latency EWMA, or the neutral cost if the replica has no
+         * measurement: the average of the measured replicas in rotation, or
+         * the read timeout if there are none.
+         */
+        private double latencyNanos() {
+            if (measured) {
+                return ewmaNanos;
+            }
+            return replicas.stream()
+                    .filter(r -> r != this && r.measured && !r.ejected)
+                    .mapToDouble(r -> r.ewmaNanos)
+                    .average()
+                    .orElse(initialLatencyNanos);
+        }
+
+        private synchronized void onSuccess(long latencyNanos) {
+            consecutiveFailures = 0;
+            updateEwma(latencyNanos);
+            if (System.nanoTime() - reintroducedNanos > slowStartNanos) {
+                ejections = 0;
+            }
+        }
+
+        /**
+         * Returns true if the replica has reached the failure threshold.
+         */
+        private synchronized boolean onFailure(long latencyNanos) {
+            updateEwma(Math.max(latencyNanos, FAILURE_PENALTY_NANOS));
+            return ++consecutiveFailures >= failureThreshold;
+        }
+
+        private synchronized void eject(long now) {
+            long backoff = ejectionNanos << Math.min(ejections, MAX_BACKOFF_SHIFT);
+            ejectedUntilNanos = now + Math.min(maxEjectionNanos, backoff > 0 ? backoff : maxEjectionNanos);
+            ejected = true;
+            ejections++;
+            consecutiveFailures = 0;
+            ejectionCounter.increment();
+        }
+
+        private void updateEwma(long sampleNanos) {
+            ewmaNanos = measured ? ewmaNanos + EWMA_WEIGHT * (sampleNanos - ewmaNanos) : sampleNanos;
+            measured = true;
+        }
+    }
+}
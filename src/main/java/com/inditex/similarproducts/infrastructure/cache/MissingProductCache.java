@@ -0,0 +1,62 @@
+package com.inditex.similarproducts.infrastructure.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Negative cache of product IDs the external API reported as not found.
+ * <p>
+ * Entries expire after {@code cache.missing-products.ttl}, so products created
+ * later become visible again. Requests for known-missing products are
+ * answered with 404 without any upstream call.
+ * </p>
+ */
+@Component
+public class MissingProductCache {
+
+    private final Cache<String, Boolean> missingProducts;
+    private final Counter shortCircuitCounter;
+
+    public MissingProductCache(
+            @Value("${cache.missing-products.ttl:5m}") Duration ttl,
+            @Value("${cache.missing-products.maximum-size:100000}") long maximumSize,
+            MeterRegistry meterRegistry) {
+        this.missingProducts = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maximumSize)
+                .build();
+        this.shortCircuitCounter = Counter.builder("similarproducts.notfound.shortcircuit")
+                .description("Requests answered with 404 from the negative cache")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns true if the product is known not to exist, counting the
+     * short-circuited request.
+     */
+    public boolean isKnownMissing(String productId) {
+        if (missingProducts.getIfPresent(productId) == null) {
+            return false;
+        }
+        shortCircuitCounter.increment();
+        return true;
+    }
+
+    /**
+     * Returns true if the product is known not to exist, without counting a
+     * short-circuited request.
+     */
+    public boolean contains(String productId) {
+        return missingProducts.getIfPresent(productId) != null;
+    }
+
+    public void recordMissing(String productId) {
+        missingProducts.put(productId, Boolean.TRUE);
+    }
+}
@@ -0,0 +1,211 @@
+package com.inditex.similarproducts.infrastructure.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Policy;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+import org.springframework.lang.Nullable;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caffeine-backed Spring cache that keeps entries for a retention period after
+ * they expire.
+ * <p>
+ * Regular cache lookups only see entries younger than the TTL, so expired
+ * entries are reloaded as usual. {@link #getRetained(Object)} also returns
+ * expired-but-retained entries, allowing callers to serve stale data when
+ * reloading is not an option (e.g. under overload).
+ * </p>
+ * <p>
+ * {@link #get(Object, Callable)} runs the loader outside the store's locks:
+ * concurrent callers for the same key wait for a single load, and the store
+ * is only locked to swap in the loaded entry, so a slow load never blocks
+ * lookups or loads of other keys.
+ * </p>
+ * The TTL and the maximum size can be changed at runtime; existing entries
+ * are re-evaluated against the new TTL.
+ */
+public class StaleRetainingCaffeineCache extends AbstractValueAdaptingCache {
+
+    private final String name;
+    private final Cache<Object, Entry> store;
+    private final ConcurrentMap<Object, CompletableFuture<Entry>> loads = new ConcurrentHashMap<>();
+    private final Duration staleRetention;
+    private volatile Duration ttl;
+    private volatile long ttlNanos;
+
+    public StaleRetainingCaffeineCache(String name, Duration ttl, Duration staleRetention, long maximumSize) {
+        super(false);
+        this.name = name;
+        this.ttl = ttl;
+        this.ttlNanos = ttl.toNanos();
+        this.staleRetention = staleRetention;
+        this.store = Caffeine.newBuilder()
+                .expireAfterWrite(ttl.plus(staleRetention))
+                .maximumSize(maximumSize)
+                .build();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return store;
+    }
+
+    @Override
+    @Nullable
+    protected Object lookup(Object key) {
+        Entry entry = store.getIfPresent(key);
+        return entry != null && isFresh(entry) ? entry.value : null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        Entry entry = store.getIfPresent(key);
+        if (entry == null || !isFresh(entry)) {
+            entry = load(key, valueLoader);
+        }
+        return (T) fromStoreValue(entry.value);
+    }
+
+    @Override
+    public void put(Object key, @Nullable Object value) {
+        store.put(key, new Entry(toStoreValue(value), System.nanoTime()));
+    }
+
+    @Override
+    public void evict(Object key) {
+        store.invalidate(key);
+    }
+
+    @Override
+    public void clear() {
+        store.invalidateAll();
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    /**
+     * Changes the TTL; entries are retained for the stale retention period
+     * after the new TTL.
+     */
+    public void setTtl(Duration ttl) {
+        if (ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("Cache TTL must be positive");
+        }
+        this.ttl = ttl;
+        this.ttlNanos = ttl.toNanos();
+        store.policy().expireAfterWrite()
+                .ifPresent(expiration -> expiration.setExpiresAfter(ttl.plus(staleRetention).toNanos(), TimeUnit.NANOSECONDS));
+    }
+
+    public long getMaximumSize() {
+        return store.policy().eviction()
+                .map(Policy.Eviction::getMaximum)
+                .orElse(Long.MAX_VALUE);
+    }
+
+    public void setMaximumSize(long maximumSize) {
+        if (maximumSize < 0) {
+            throw new IllegalArgumentException("Cache maximum size must not be negative");
+        }
+        store.policy().eviction().ifPresent(eviction -> eviction.setMaximum(maximumSize));
+    }
+
+    /**
+     * Returns the entry for the given key whether it is fresh or expired but
+     * still retained, or {@code null} if there is none.
+     */
+    @Nullable
+    public Retained getRetained(Object key) {
+        Entry entry = store.getIfPresent(key);
+        return entry != null ? new Retained(fromStoreValue(entry.value), !isFresh(entry)) : null;
+    }
+
+    /**
+     * Loads a missing or expired key, or waits for the load already running
+     * for it.
+     */
+    private Entry load(Object key, Callable<?> valueLoader) {
+        CompletableFuture<Entry> load = new CompletableFuture<>();
+        CompletableFuture<Entry> inProgress = loads.putIfAbsent(key, load);
+        if (inProgress != null) {
+            try {
+                return inProgress.join();
+            } catch (CompletionException e) {
+                throw (RuntimeException) e.getCause();
+            }
+        }
+        try {
+            // Another caller may have completed its load between our lookup and the claim
+            Entry current = store.getIfPresent(key);
+            if (current == null || !isFresh(current)) {
+                Entry loaded = new Entry(toStoreValue(valueLoader.call()), System.nanoTime());
+                current = store.asMap().compute(key,
+                        (k, existing) -> existing != null && isFresh(existing) ? existing : loaded);
+            }
+            load.complete(current);
+            return current;
+        } catch (Exception e) {
+            ValueRetrievalException failure = new ValueRetrievalException(key, valueLoader, e);
+            load.completeExceptionally(failure);
+            throw failure;
+        } finally {
+            loads.remove(key, load);
+            // Releases the waiters if the loader failed with an error
+            load.cancel(false);
+        }
+    }
+
+    private boolean isFresh(Entry entry) {
+        return System.nanoTime() - entry.writeNanos < ttlNanos;
+    }
+
+    private static final class Entry {
+
+        private final Object value;
+        private final long writeNanos;
+
+        private Entry(Object value, long writeNanos) {
+            this.value = value;
+            this.writeNanos = writeNanos;
+        }
+    }
+
+    /**
+     * A retained cache value together with whether it has already expired.
+     */
+    public static final class Retained implements ValueWrapper {
+
+        private final Object value;
+        private final boolean stale;
+
+        private Retained(Object value, boolean stale) {
+            this.value = value;
+            this.stale = stale;
+        }
+
+        @Override
+        public Object get() {
+            return value;
+        }
+
+        public boolean isStale() {
+            return stale;
+        }
+    }
+}
@@ -1,23 +1,38 @@
 package com.inditex.similarproducts.infrastructure.config;
 
-import com.github.benmanes.caffeine.cache.Caffeine;
+import com.inditex.similarproducts.infrastructure.cache.StaleRetainingCaffeineCache;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.support.SimpleCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
-import java.util.concurrent.TimeUnit;
+import java.time.Duration;
+import java.util.List;
 
 @Configuration
 @EnableCaching
 public class CacheConfig {
 
+    public static final String SIMILAR_PRODUCTS_CACHE = "similarProducts";
+
+    /**
+     * Cache of similar products. Entries expire after the TTL but are retained
+     * for a while longer so they can be served stale under overload.
+     */
+    @Bean
+    public StaleRetainingCaffeineCache similarProductsCache(
+            @Value("${cache.similar-products.ttl:1h}") Duration ttl,
+            @Value("${cache.similar-products.stale-retention:24h}") Duration staleRetention,
+            @Value("${cache.similar-products.maximum-size:10000}") long maximumSize) {
+        return new StaleRetainingCaffeineCache(SIMILAR_PRODUCTS_CACHE, ttl, staleRetention, maximumSize);
+    }
+
     @Bean
-    public CacheManager cacheManager() {
-        CaffeineCacheManager cacheManager = new CaffeineCacheManager("similarProducts");
-        cacheManager.setCaffeine(Caffeine.newBuilder()
-                .expireAfterWrite(1, TimeUnit.HOURS));
+    public CacheManager cacheManager(StaleRetainingCaffeineCache similarProductsCache) {
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(List.of(similarProductsCache));
         return cacheManager;
     }
 }
@@ -0,0 +1,88 @@
+package com.inditex.similarproducts.infrastructure.config;
+
+import com.inditex.similarproducts.infrastructure.adapter.out.peer.ConsistentHashRing;
+import com.inditex.similarproducts.infrastructure.adapter.out.peer.PeerCacheProductRepository;
+import com.inditex.similarproducts.infrastructure.adapter.out.peer.PeerCacheSettings;
+import com.inditex.similarproducts.infrastructure.adapter.out.rest.ProductRestClientAdapter;
+import com.inditex.similarproducts.infrastructure.cache.MissingProductCache;
+import com.inditex.similarproducts.infrastructure.mapper.ProductMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Configuration of the optional peer cache tier, enabled with
+ * {@code peer-cache.enabled=true}.
+ * <p>
+ * The peer-aware repository becomes the primary {@code ProductRepositoryPort}
+ * and delegates to {@link ProductRestClientAdapter} for the products this
+ * replica owns.
+ * </p>
+ * <p>
+ * Unless {@code peer-cache.read-timeout} is set, replicas wait for a peer as
+ * long as they would wait for a single upstream attempt, plus a margin for the
+ * peer hop. An owner still retrying a slow key past that is given up on and
+ * the replica calls the upstream itself, so a request thread is never held
+ * for the owner's whole retry path.
+ * </p>
+ */
+@Configuration
+@ConditionalOnProperty(name = "peer-cache.enabled", havingValue = "true")
+@EnableConfigurationProperties(PeerCacheSettings.class)
+public class PeerCacheConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(PeerCacheConfig.class);
+    private static final Duration PEER_HOP_MARGIN = Duration.ofMillis(500);
+
+    @Bean
+    @Primary
+    public PeerCacheProductRepository peerCacheProductRepository(
+            ProductRestClientAdapter productRestClientAdapter,
+            ProductMapper productMapper,
+            MissingProductCache missingProductCache,
+            PeerCacheSettings settings,
+            RestTemplateBuilder builder,
+            @Value("${external.api.timeout.read:5000}") int upstreamReadTimeoutMillis) {
+        if (settings.getSelf() == null || settings.getSelf().isBlank()) {
+            throw new IllegalStateException("peer-cache.self is required when peer-cache.enabled=true");
+        }
+        Set<String> nodes = new LinkedHashSet<>(settings.getPeers());
+        nodes.add(settings.getSelf());
+        Duration readTimeout = settings.getReadTimeout() != null
+                ? settings.getReadTimeout()
+                : Duration.ofMillis(upstreamReadTimeoutMillis).plus(PEER_HOP_MARGIN);
+        logger.info("Peer cache enabled: self={}, peers={}, readTimeout={}, maxWaitsPerOwner={}",
+                settings.getSelf(), nodes, readTimeout, settings.getMaxWaitsPerOwner());
+        if (settings.getSecret() == null || settings.getSecret().isEmpty()) {
+            logger.warn("peer-cache.secret is not set: /internal/peer/** accepts unauthenticated requests");
+        }
+
+        RestTemplateBuilder peerClientBuilder = builder
+                .setConnectTimeout(settings.getConnectTimeout())
+                .setReadTimeout(readTimeout);
+        if (settings.getSecret() != null && !settings.getSecret().isEmpty()) {
+            peerClientBuilder = peerClientBuilder.defaultHeader(
+                    PeerCacheProductRepository.PEER_TOKEN_HEADER, settings.getSecret());
+        }
+        RestTemplate peerClient = peerClientBuilder.build();
+        return new PeerCacheProductRepository(
+                productRestClientAdapter,
+                new ConsistentHashRing(nodes, settings.getVirtualNodes()),
+                settings.getSelf(),
+                peerClient,
+                productMapper,
+                missingProductCache,
+                settings);
+    }
+}
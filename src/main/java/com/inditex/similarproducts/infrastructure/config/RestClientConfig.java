@@ -1,5 +1,10 @@
 package com.inditex.similarproducts.infrastructure.config;
 
+import com.inditex.similarproducts.application.concurrent.FanOutScheduler;
+import com.inditex.similarproducts.infrastructure.adapter.out.rest.AdaptiveTimeoutRequestFactory;
+import com.inditex.similarproducts.infrastructure.adapter.out.rest.AdaptiveTimeouts;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
@@ -7,8 +12,6 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.web.client.RestTemplate;
 
 import java.time.Duration;
-import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
 
 /**
  * Configuration for REST client and async execution.
@@ -24,21 +27,33 @@ public class RestClientConfig {
 
     /**
      * Creates a RestTemplate bean with configured timeouts.
+     * The read timeout is overridden per call by {@link AdaptiveTimeouts}.
      */
     @Bean
-    public RestTemplate restTemplate(RestTemplateBuilder builder) {
+    public RestTemplate restTemplate(RestTemplateBuilder builder, AdaptiveTimeouts adaptiveTimeouts) {
         return builder
+                .requestFactory(() -> new AdaptiveTimeoutRequestFactory(adaptiveTimeouts))
                 .setConnectTimeout(Duration.ofMillis(connectTimeout))
                 .setReadTimeout(Duration.ofMillis(readTimeout))
                 .build();
     }
 
     /**
-     * Creates an Executor for async operations.
-     * Uses a fixed thread pool for parallel product fetching.
+     * Creates the scheduler for parallel product fetching.
+     * Requests are served round-robin, each with a capped parallelism.
      */
     @Bean
-    public Executor taskExecutor() {
-        return Executors.newFixedThreadPool(10);
+    public FanOutScheduler fanOutScheduler(
+            @Value("${fan-out.workers:10}") int workers,
+            @Value("${fan-out.max-parallelism-per-request:4}") int maxParallelismPerRequest,
+            MeterRegistry meterRegistry) {
+        FanOutScheduler scheduler = new FanOutScheduler(workers, maxParallelismPerRequest);
+        Gauge.builder("similarproducts.fanout.queued", scheduler, FanOutScheduler::getQueuedTasks)
+                .description("Detail fetches waiting for a worker")
+                .register(meterRegistry);
+        Gauge.builder("similarproducts.fanout.waiting", scheduler, FanOutScheduler::getWaitingRequests)
+                .description("Requests with detail fetches waiting for a worker")
+                .register(meterRegistry);
+        return scheduler;
     }
 }
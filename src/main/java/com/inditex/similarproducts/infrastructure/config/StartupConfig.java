@@ -0,0 +1,34 @@
+package com.inditex.similarproducts.infrastructure.config;
+
+import com.inditex.similarproducts.application.concurrent.FanOutScheduler;
+import com.inditex.similarproducts.domain.port.in.GetSimilarProductsUseCase;
+import com.inditex.similarproducts.domain.port.out.ProductRepositoryPort;
+import com.inditex.similarproducts.infrastructure.adapter.in.rest.SimilarProductsController;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Startup configuration.
+ * <p>
+ * When lazy initialization is enabled (fast-startup profile), the beans on the
+ * request hot path are still created eagerly so that the first requests do
+ * not pay for their initialization.
+ * </p>
+ */
+@Configuration
+public class StartupConfig {
+
+    @Bean
+    public static LazyInitializationExcludeFilter hotPathLazyInitializationExcludeFilter() {
+        return LazyInitializationExcludeFilter.forBeanTypes(
+                SimilarProductsController.class,
+                GetSimilarProductsUseCase.class,
+                ProductRepositoryPort.class,
+                RestTemplate.class,
+                FanOutScheduler.class,
+                CacheManager.class);
+    }
+}
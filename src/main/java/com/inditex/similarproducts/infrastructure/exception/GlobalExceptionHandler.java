@@ -1,49 +1,109 @@
 package com.inditex.similarproducts.infrastructure.exception;
 
+import com.inditex.similarproducts.infrastructure.adapter.in.rest.SimilarProductsResponseEncoder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
 import javax.validation.ConstraintViolationException;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
 
+/**
+ * Maps exceptions to error responses, encoded in the format negotiated from
+ * the Accept header like the successful responses (JSON by default).
+ */
 @RestControllerAdvice
 public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
 
     private static final Logger logger = LoggerFactory.getLogger(GlobalExceptionHandler.class);
 
+    // JSON not-found bodies are assembled from precomputed bytes around the product ID
+    private static final byte[] NOT_FOUND_BODY_PREFIX = ("{\"status\":404,\"error\":\"Not Found\",\"message\":\""
+            + ProductNotFoundException.MESSAGE_PREFIX).getBytes(StandardCharsets.UTF_8);
+    private static final byte[] NOT_FOUND_BODY_SUFFIX = "\"}".getBytes(StandardCharsets.UTF_8);
+
+    private final SimilarProductsResponseEncoder responseEncoder;
+
+    public GlobalExceptionHandler(SimilarProductsResponseEncoder responseEncoder) {
+        this.responseEncoder = responseEncoder;
+    }
+
     @ExceptionHandler(ConstraintViolationException.class)
-    public ResponseEntity<Object> handleConstraintViolation(ConstraintViolationException ex) {
+    public ResponseEntity<Object> handleConstraintViolation(ConstraintViolationException ex, WebRequest request) {
         logger.warn("Validation error: {}", ex.getMessage());
-        Map<String, Object> body = new HashMap<>();
-        body.put("status", HttpStatus.BAD_REQUEST.value());
-        body.put("error", "Bad Request");
-        body.put("message", ex.getMessage());
-        return new ResponseEntity<>(body, HttpStatus.BAD_REQUEST);
+        return errorResponse(HttpStatus.BAD_REQUEST, ex.getMessage(), new HttpHeaders(), request);
     }
 
     @ExceptionHandler(ProductNotFoundException.class)
-    public ResponseEntity<Object> handleProductNotFound(ProductNotFoundException ex) {
-        logger.warn("Product not found: {}", ex.getMessage());
-        Map<String, Object> body = new HashMap<>();
-        body.put("status", HttpStatus.NOT_FOUND.value());
-        body.put("error", "Not Found");
-        body.put("message", ex.getMessage());
-        return new ResponseEntity<>(body, HttpStatus.NOT_FOUND);
+    public ResponseEntity<Object> handleProductNotFound(ProductNotFoundException ex, WebRequest request) {
+        logger.debug("Product not found: {}", ex.getMessage());
+        String productId = ex.getProductId();
+        MediaType mediaType = selectMediaType(request);
+        if (!MediaType.APPLICATION_JSON.equals(mediaType) || productId == null || !isJsonSafe(productId)) {
+            return errorResponse(HttpStatus.NOT_FOUND, ex.getMessage(), new HttpHeaders(), request);
+        }
+
+        byte[] id = productId.getBytes(StandardCharsets.UTF_8);
+        byte[] body = new byte[NOT_FOUND_BODY_PREFIX.length + id.length + NOT_FOUND_BODY_SUFFIX.length];
+        System.arraycopy(NOT_FOUND_BODY_PREFIX, 0, body, 0, NOT_FOUND_BODY_PREFIX.length);
+        System.arraycopy(id, 0, body, NOT_FOUND_BODY_PREFIX.length, id.length);
+        System.arraycopy(NOT_FOUND_BODY_SUFFIX, 0, body, NOT_FOUND_BODY_PREFIX.length + id.length,
+                NOT_FOUND_BODY_SUFFIX.length);
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity<Object> handleServiceOverloaded(ServiceOverloadedException ex, WebRequest request) {
+        logger.debug("Request shed: {}", ex.getMessage());
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, ex.getRetryAfter().toSeconds())));
+        return errorResponse(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage(), headers, request);
     }
 
     @ExceptionHandler(Exception.class)
-    public ResponseEntity<Object> handleAll(Exception ex) {
+    public ResponseEntity<Object> handleAll(Exception ex, WebRequest request) {
         logger.error("Unexpected error", ex);
+        return errorResponse(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage(), new HttpHeaders(), request);
+    }
+
+    private ResponseEntity<Object> errorResponse(HttpStatus status, String message, HttpHeaders headers,
+            WebRequest request) {
         Map<String, Object> body = new HashMap<>();
-        body.put("status", HttpStatus.INTERNAL_SERVER_ERROR.value());
-        body.put("error", "Internal Server Error");
-        body.put("message", ex.getMessage());
-        return new ResponseEntity<>(body, HttpStatus.INTERNAL_SERVER_ERROR);
+        body.put("status", status.value());
+        body.put("error", status.getReasonPhrase());
+        body.put("message", message);
+        MediaType mediaType = selectMediaType(request);
+        return ResponseEntity.status(status)
+                .headers(headers)
+                .contentType(mediaType)
+                .body(responseEncoder.encodeError(body, mediaType));
+    }
+
+    private MediaType selectMediaType(WebRequest request) {
+        return responseEncoder.selectMediaType(request.getHeader(HttpHeaders.ACCEPT));
+    }
+
+    /**
+     * Returns true if the value can be embedded in a JSON string as is.
+     */
+    private static boolean isJsonSafe(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x20 || c == '"' || c == '\\') {
+                return false;
+            }
+        }
+        return true;
     }
 }
@@ -2,17 +2,43 @@ package com.inditex.similarproducts.infrastructure.exception;
 
 /**
  * Exception thrown when a product is not found.
+ * <p>
+ * Not-found is an expected outcome, often triggered by junk traffic, so the
+ * exception does not capture a stack trace.
+ * </p>
+ * <p>
+ * An unconfirmed not-found is reported when the product could not be loaded
+ * at all (circuit breaker open, retries exhausted). It is answered with 404
+ * like a confirmed one, but must not be remembered as missing.
+ * </p>
  */
 public class ProductNotFoundException extends RuntimeException {
-    
+
+    private static final long serialVersionUID = 1L;
+
+    static final String MESSAGE_PREFIX = "Product not found with ID: ";
+
     private final String productId;
+    private final boolean confirmed;
 
     public ProductNotFoundException(String productId) {
-        super(String.format("Product not found with ID: %s", productId));
+        this(productId, true);
+    }
+
+    public ProductNotFoundException(String productId, boolean confirmed) {
+        super(MESSAGE_PREFIX + productId, null, false, false);
         this.productId = productId;
+        this.confirmed = confirmed;
     }
 
     public String getProductId() {
         return productId;
     }
+
+    /**
+     * Returns true if the upstream actually reported the product as missing.
+     */
+    public boolean isConfirmed() {
+        return confirmed;
+    }
 }
@@ -0,0 +1,22 @@
+package com.inditex.similarproducts.infrastructure.exception;
+
+import java.time.Duration;
+
+/**
+ * Exception thrown when a request is shed because the service is overloaded.
+ */
+public class ServiceOverloadedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Duration retryAfter;
+
+    public ServiceOverloadedException(Duration retryAfter) {
+        super("Service overloaded, retry later");
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
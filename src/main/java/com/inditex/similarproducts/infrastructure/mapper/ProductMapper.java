@@ -11,4 +11,6 @@ public interface ProductMapper {
     ProductResponseDto toResponseDto(ProductDetail productDetail);
 
     ProductDetail toDomain(ProductDetailDto productDetailDto);
+
+    ProductDetailDto toDetailDto(ProductDetail productDetail);
 }
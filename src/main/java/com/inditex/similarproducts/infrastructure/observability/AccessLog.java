@@ -0,0 +1,116 @@
+package com.inditex.similarproducts.infrastructure.observability;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Asynchronous, sampled access log for the request hot path.
+ * <p>
+ * Request threads only decide whether to keep an event and push it into a
+ * lock-free ring buffer; formatting and appending happen on a background
+ * writer thread. The decision is taken once the request has completed
+ * (tail-based): slow ({@code access-log.slow-threshold}) and failed (5xx)
+ * requests are always kept, the rest with probability
+ * {@code access-log.sample-rate}. Events that do not fit in the buffer are
+ * dropped and counted.
+ * </p>
+ */
+@Component
+public class AccessLog {
+
+    private static final Logger accessLogger = LoggerFactory.getLogger("ACCESS_LOG");
+
+    private final boolean enabled;
+    private final double sampleRate;
+    private final long slowThresholdNanos;
+    private final AccessLogRingBuffer<AccessLogEvent> buffer;
+    private final ScheduledExecutorService writer;
+    private final Counter droppedCounter;
+
+    public AccessLog(
+            @Value("${access-log.enabled:true}") boolean enabled,
+            @Value("${access-log.sample-rate:0.01}") double sampleRate,
+            @Value("${access-log.slow-threshold:500ms}") Duration slowThreshold,
+            @Value("${access-log.buffer-size:8192}") int bufferSize,
+            @Value("${access-log.flush-interval:200ms}") Duration flushInterval,
+            MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.sampleRate = sampleRate;
+        this.slowThresholdNanos = slowThreshold.toNanos();
+        this.buffer = new AccessLogRingBuffer<>(bufferSize);
+        this.droppedCounter = Counter.builder("similarproducts.accesslog.dropped")
+                .description("Access-log events dropped because the buffer was full")
+                .register(meterRegistry);
+        this.writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "access-log-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (enabled) {
+            writer.scheduleWithFixedDelay(this::flush,
+                    flushInterval.toMillis(), flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Records a completed request if it is retained by the sampling policy.
+     *
+     * @param cache how the response cache took part, or {@code null} if it
+     *              was not consulted
+     */
+    public void record(String productId, int status, int fanOut, @Nullable CacheOutcome cache, long latencyNanos) {
+        if (!enabled) {
+            return;
+        }
+        String reason;
+        if (status >= 500) {
+            reason = "error";
+        } else if (latencyNanos >= slowThresholdNanos) {
+            reason = "slow";
+        } else if (ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            reason = "sampled";
+        } else {
+            return;
+        }
+
+        AccessLogEvent event = new AccessLogEvent(System.currentTimeMillis(), productId, status, fanOut, cache,
+                latencyNanos, reason);
+        if (!buffer.offer(event)) {
+            droppedCounter.increment();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writer.shutdown();
+        flush();
+    }
+
+    private synchronized void flush() {
+        buffer.drain(this::write);
+    }
+
+    private void write(AccessLogEvent event) {
+        accessLogger.info("ts={} productId={} status={} fanOut={} cache={} latencyMs={} reason={}",
+                event.getTimestamp(),
+                event.getProductId(),
+                event.getStatus(),
+                event.getFanOut(),
+                event.getCache() != null ? event.getCache().getName() : "none",
+                String.format(Locale.ROOT, "%.3f", event.getLatencyNanos() / 1_000_000.0),
+                event.getReason());
+    }
+}
@@ -0,0 +1,19 @@
+package com.inditex.similarproducts.infrastructure.observability;
+
+import lombok.Value;
+import org.springframework.lang.Nullable;
+
+/**
+ * Structured access-log record of a single product request.
+ */
+@Value
+public class AccessLogEvent {
+    long timestamp;
+    String productId;
+    int status;
+    int fanOut;
+    @Nullable
+    CacheOutcome cache;
+    long latencyNanos;
+    String reason;
+}
@@ -0,0 +1,68 @@
+package com.inditex.similarproducts.infrastructure.observability;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded, lock-free multi-producer single-consumer ring buffer.
+ * <p>
+ * Producers claim a sequence with a CAS and publish the element into its
+ * slot; the single consumer drains published slots in order. When the buffer
+ * is full, {@link #offer(Object)} fails immediately instead of blocking the
+ * producer.
+ * </p>
+ */
+class AccessLogRingBuffer<E> {
+
+    private final AtomicReferenceArray<E> slots;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+
+    AccessLogRingBuffer(int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+        }
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Adds an element, returning false if the buffer is full.
+     */
+    boolean offer(E element) {
+        while (true) {
+            long sequence = head.get();
+            if (sequence - tail.get() > mask) {
+                return false;
+            }
+            if (head.compareAndSet(sequence, sequence + 1)) {
+                slots.lazySet((int) (sequence & mask), element);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Passes every published element to the consumer, in order. Must only be
+     * called from a single thread.
+     *
+     * @return the number of drained elements
+     */
+    int drain(Consumer<E> consumer) {
+        long sequence = tail.get();
+        int drained = 0;
+        while (true) {
+            int index = (int) (sequence & mask);
+            E element = slots.get(index);
+            if (element == null) {
+                return drained;
+            }
+            slots.lazySet(index, null);
+            tail.lazySet(++sequence);
+            consumer.accept(element);
+            drained++;
+        }
+    }
+}
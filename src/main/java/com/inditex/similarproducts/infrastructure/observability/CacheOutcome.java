@@ -0,0 +1,54 @@
+package com.inditex.similarproducts.infrastructure.observability;
+
+import org.springframework.lang.Nullable;
+
+import javax.servlet.ServletRequest;
+import java.util.Locale;
+
+/**
+ * How the response cache took part in a product request. Recorded on the
+ * request by the controller and reported in the {@link AccessLog}.
+ */
+public enum CacheOutcome {
+
+    /**
+     * Answered from a fresh cache entry.
+     */
+    HIT,
+
+    /**
+     * Answered from an expired but retained entry because the service was
+     * overloaded.
+     */
+    STALE,
+
+    /**
+     * Not in the cache; loaded from the external API.
+     */
+    MISS;
+
+    private static final String ATTRIBUTE = CacheOutcome.class.getName();
+
+    private final String name = name().toLowerCase(Locale.ROOT);
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Records this outcome on the request.
+     */
+    public void record(ServletRequest request) {
+        request.setAttribute(ATTRIBUTE, this);
+    }
+
+    /**
+     * Returns the outcome recorded on the request, or {@code null} if the
+     * request was answered without consulting the cache.
+     */
+    @Nullable
+    public static CacheOutcome of(ServletRequest request) {
+        Object outcome = request.getAttribute(ATTRIBUTE);
+        return outcome instanceof CacheOutcome ? (CacheOutcome) outcome : null;
+    }
+}
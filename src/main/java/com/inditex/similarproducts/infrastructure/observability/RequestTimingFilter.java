@@ -0,0 +1,70 @@
+package com.inditex.similarproducts.infrastructure.observability;
+
+import com.inditex.similarproducts.application.timing.RequestTimings;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Binds a {@link RequestTimings} collector to every product request. Once the
+ * response has been written, emits a {@link SimilarProductsRequestEvent} with
+ * the breakdown and hands the request over to the {@link AccessLog}.
+ */
+@Component
+public class RequestTimingFilter extends OncePerRequestFilter {
+
+    private static final String PRODUCT_PATH = "/product/";
+
+    private final AccessLog accessLog;
+
+    public RequestTimingFilter(AccessLog accessLog) {
+        this.accessLog = accessLog;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith(PRODUCT_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        SimilarProductsRequestEvent event = new SimilarProductsRequestEvent();
+        event.begin();
+        RequestTimings timings = RequestTimings.start();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestTimings.clear();
+            long latencyNanos = System.nanoTime() - timings.getStartNanos();
+            int status = response.getStatus();
+            accessLog.record(productId(request), status, timings.getFanOut(), CacheOutcome.of(request), latencyNanos);
+            event.end();
+            if (event.shouldCommit()) {
+                event.setUri(request.getRequestURI());
+                event.setStatus(status);
+                event.setSimilarIds(timings.get(RequestTimings.SIMILAR_IDS));
+                event.setQueue(timings.get(RequestTimings.QUEUE));
+                event.setDetails(timings.get(RequestTimings.DETAILS));
+                event.setUpstream(timings.get(RequestTimings.UPSTREAM));
+                event.setRetries(timings.getRetries());
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Returns the product ID segment of a {@code /product/{productId}/...} URI.
+     */
+    private static String productId(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        int end = uri.indexOf('/', PRODUCT_PATH.length());
+        String productId = uri.substring(PRODUCT_PATH.length(), end < 0 ? uri.length() : end);
+        return productId.isEmpty() ? null : productId;
+    }
+}
@@ -0,0 +1,68 @@
+package com.inditex.similarproducts.infrastructure.observability;
+
+import com.inditex.similarproducts.application.timing.RequestTimings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Adds a Server-Timing header with the phases recorded for the current request.
+ * Runs right before the body is serialized, so the header can still be set.
+ * Enabled with {@code observability.server-timing.enabled}.
+ */
+@RestControllerAdvice
+public class ServerTimingResponseAdvice implements ResponseBodyAdvice<Object> {
+
+    static final String SERVER_TIMING_HEADER = "Server-Timing";
+
+    private final boolean enabled;
+
+    public ServerTimingResponseAdvice(@Value("${observability.server-timing.enabled:false}") boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return enabled;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+            Class<? extends HttpMessageConverter<?>> selectedConverterType,
+            ServerHttpRequest request, ServerHttpResponse response) {
+        RequestTimings timings = RequestTimings.current();
+        if (timings.isEnabled()) {
+            response.getHeaders().add(SERVER_TIMING_HEADER, format(timings));
+        }
+        return body;
+    }
+
+    /**
+     * Formats the recorded phases as Server-Timing metrics, e.g.
+     * {@code similarids;dur=12.1, queue;dur=0.3, details;dur=25.4, app;dur=38.2}.
+     */
+    static String format(RequestTimings timings) {
+        StringJoiner header = new StringJoiner(", ");
+        for (Map.Entry<String, Long> phase : timings.snapshot().entrySet()) {
+            header.add(metric(phase.getKey(), phase.getValue()));
+        }
+        if (timings.getRetries() > 0) {
+            header.add("retries;desc=\"" + timings.getRetries() + "\"");
+        }
+        header.add(metric("app", System.nanoTime() - timings.getStartNanos()));
+        return header.toString();
+    }
+
+    private static String metric(String name, long nanos) {
+        return name + ";dur=" + String.format(Locale.ROOT, "%.1f", nanos / 1_000_000.0);
+    }
+}
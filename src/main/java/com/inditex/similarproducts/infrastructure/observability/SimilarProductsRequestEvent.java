@@ -0,0 +1,75 @@
+package com.inditex.similarproducts.infrastructure.observability;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Java Flight Recorder event emitted once per inbound request, with the
+ * breakdown of where the time went. The event duration covers the whole
+ * request, serialization included.
+ */
+@Name("com.inditex.similarproducts.Request")
+@Label("Similar Products Request")
+@Category({"Similar Products", "Request"})
+@Description("Inbound request with its phase timings")
+@StackTrace(false)
+public class SimilarProductsRequestEvent extends Event {
+
+    @Label("URI")
+    String uri;
+
+    @Label("Status")
+    int status;
+
+    @Label("Similar IDs Call")
+    @Timespan(Timespan.NANOSECONDS)
+    long similarIds;
+
+    @Label("Max Queue Wait")
+    @Timespan(Timespan.NANOSECONDS)
+    long queue;
+
+    @Label("Details Fan-out")
+    @Timespan(Timespan.NANOSECONDS)
+    long details;
+
+    @Label("Upstream Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long upstream;
+
+    @Label("Retries")
+    int retries;
+
+    public void setUri(String uri) {
+        this.uri = uri;
+    }
+
+    public void setStatus(int status) {
+        this.status = status;
+    }
+
+    public void setSimilarIds(long similarIds) {
+        this.similarIds = similarIds;
+    }
+
+    public void setQueue(long queue) {
+        this.queue = queue;
+    }
+
+    public void setDetails(long details) {
+        this.details = details;
+    }
+
+    public void setUpstream(long upstream) {
+        this.upstream = upstream;
+    }
+
+    public void setRetries(int retries) {
+        this.retries = retries;
+    }
+}
@@ -0,0 +1,55 @@
+package com.inditex.similarproducts.infrastructure.observability;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder event emitted for every call to the external product
+ * API, retries included.
+ */
+@Name("com.inditex.similarproducts.UpstreamCall")
+@Label("Upstream Call")
+@Category({"Similar Products", "Upstream"})
+@Description("HTTP call to the external product API")
+@StackTrace(false)
+public class UpstreamCallEvent extends Event {
+
+    @Label("Endpoint")
+    String endpoint;
+
+    @Label("Product ID")
+    String productId;
+
+    @Label("Attempt")
+    int attempt;
+
+    @Label("Outcome")
+    String outcome;
+
+    /**
+     * Creates and begins an event for the given call.
+     */
+    public static UpstreamCallEvent start(String endpoint, String productId, int attempt) {
+        UpstreamCallEvent event = new UpstreamCallEvent();
+        event.endpoint = endpoint;
+        event.productId = productId;
+        event.attempt = attempt;
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Ends the event and commits it if the recording is interested in it.
+     */
+    public void finish(String outcome) {
+        end();
+        if (shouldCommit()) {
+            this.outcome = outcome;
+            commit();
+        }
+    }
+}
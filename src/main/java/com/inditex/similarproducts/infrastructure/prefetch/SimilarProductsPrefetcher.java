@@ -0,0 +1,292 @@
+package com.inditex.similarproducts.infrastructure.prefetch;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Scheduler;
+import com.inditex.similarproducts.application.service.SimilarProductsService;
+import com.inditex.similarproducts.application.timing.RequestTimings;
+import com.inditex.similarproducts.domain.model.ProductDetail;
+import com.inditex.similarproducts.infrastructure.cache.MissingProductCache;
+import com.inditex.similarproducts.infrastructure.cache.StaleRetainingCaffeineCache;
+import com.inditex.similarproducts.infrastructure.exception.ProductNotFoundException;
+import com.inditex.similarproducts.infrastructure.resilience.LoadShedder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Speculative prefetch of the similar products of the products just returned.
+ * <p>
+ * Users often open one of the similar products they were shown, so after a
+ * response is served the first {@code prefetch.top-k} returned products are
+ * loaded in the background and put into the response cache for their own
+ * {@code /similar} request.
+ * </p>
+ * <p>
+ * Prefetching is strictly best effort:
+ * <ul>
+ *   <li>it runs on a small pool of minimum-priority threads with a bounded
+ *   queue; tasks that do not fit are dropped,</li>
+ *   <li>upstream calls are limited to {@code prefetch.max-upstream-rate} per
+ *   second by a token bucket; calls are reserved before they are issued, and
+ *   a fan-out the bucket cannot cover is not issued at all,</li>
+ *   <li>the detail fan-out runs in a fan-out batch capped at
+ *   {@code prefetch.max-parallelism} fetches at a time, so it only takes a
+ *   small share of the workers serving user requests,</li>
+ *   <li>pending prefetches are cancelled while the {@link LoadShedder} reports
+ *   overload.</li>
+ * </ul>
+ * Prefetched products are remembered for {@code prefetch.effectiveness-window}
+ * to report whether they were requested afterwards (hit) or not (wasted).
+ * </p>
+ */
+@Component
+public class SimilarProductsPrefetcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(SimilarProductsPrefetcher.class);
+
+    private final boolean enabled;
+    private final int topK;
+    private final int maxParallelism;
+    private final SimilarProductsService similarProductsService;
+    private final LoadShedder loadShedder;
+    private final StaleRetainingCaffeineCache similarProductsCache;
+    private final MissingProductCache missingProductCache;
+    private final UpstreamBudget budget;
+    private final ThreadPoolExecutor executor;
+    private final Cache<String, Boolean> prefetched;
+    private volatile boolean suspended;
+
+    private final Counter issuedCounter;
+    private final Counter skippedCounter;
+    private final Counter budgetExhaustedCounter;
+    private final Counter cancelledCounter;
+    private final Counter droppedCounter;
+    private final Counter hitCounter;
+    private final Counter wastedCounter;
+
+    public SimilarProductsPrefetcher(
+            @Value("${prefetch.enabled:true}") boolean enabled,
+            @Value("${prefetch.top-k:3}") int topK,
+            @Value("${prefetch.max-upstream-rate:50}") double maxUpstreamRate,
+            @Value("${prefetch.max-parallelism:1}") int maxParallelism,
+            @Value("${prefetch.threads:2}") int threads,
+            @Value("${prefetch.queue-capacity:100}") int queueCapacity,
+            @Value("${prefetch.effectiveness-window:10m}") Duration effectivenessWindow,
+            SimilarProductsService similarProductsService,
+            LoadShedder loadShedder,
+            StaleRetainingCaffeineCache similarProductsCache,
+            MissingProductCache missingProductCache,
+            MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.topK = topK;
+        this.maxParallelism = maxParallelism;
+        this.similarProductsService = similarProductsService;
+        this.loadShedder = loadShedder;
+        this.similarProductsCache = similarProductsCache;
+        this.missingProductCache = missingProductCache;
+        this.budget = new UpstreamBudget(maxUpstreamRate);
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "prefetch");
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                }, new ThreadPoolExecutor.DiscardPolicy());
+
+        this.issuedCounter = prefetchCounter("issued", meterRegistry);
+        this.skippedCounter = prefetchCounter("skipped", meterRegistry);
+        this.budgetExhaustedCounter = prefetchCounter("budget_exhausted", meterRegistry);
+        this.cancelledCounter = prefetchCounter("cancelled", meterRegistry);
+        this.droppedCounter = prefetchCounter("dropped", meterRegistry);
+        this.hitCounter = effectivenessCounter("hit", meterRegistry);
+        this.wastedCounter = effectivenessCounter("wasted", meterRegistry);
+
+        this.prefetched = Caffeine.newBuilder()
+                .expireAfterWrite(effectivenessWindow)
+                .maximumSize(10_000)
+                .scheduler(Scheduler.systemScheduler())
+                .removalListener((String id, Boolean value, RemovalCause cause) -> {
+                    if (cause.wasEvicted()) {
+                        wastedCounter.increment();
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * Schedules the prefetch of the first {@code prefetch.top-k} products of a
+     * response. Returns immediately.
+     */
+    public void prefetch(List<ProductDetail> similarProducts) {
+        if (!enabled || suspended || similarProducts.isEmpty()) {
+            return;
+        }
+        if (loadShedder.isOverloaded()) {
+            cancelPending();
+            return;
+        }
+        int limit = Math.min(topK, similarProducts.size());
+        for (int i = 0; i < limit; i++) {
+            String productId = similarProducts.get(i).getId();
+            if (isWarm(productId)) {
+                skippedCounter.increment();
+                continue;
+            }
+            if (executor.getQueue().remainingCapacity() == 0) {
+                droppedCounter.increment();
+                continue;
+            }
+            executor.execute(() -> run(productId));
+        }
+    }
+
+    /**
+     * Records an inbound request, counting a hit if the product was prefetched.
+     */
+    public void recordRequest(String productId) {
+        if (enabled && prefetched.asMap().remove(productId) != null) {
+            hitCounter.increment();
+        }
+    }
+
+    /**
+     * Stops scheduling prefetches until {@link #resume()}, e.g. while the
+     * warm-up sends synthetic requests.
+     */
+    public void suspend() {
+        suspended = true;
+    }
+
+    public void resume() {
+        suspended = false;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void run(String productId) {
+        if (loadShedder.isOverloaded()) {
+            cancelPending();
+            cancelledCounter.increment();
+            return;
+        }
+        if (isWarm(productId)) {
+            skippedCounter.increment();
+            return;
+        }
+        // The similar IDs call first; the detail fan-out is reserved once its size is known
+        if (!budget.tryReserve(1)) {
+            budgetExhaustedCounter.increment();
+            return;
+        }
+
+        // Bind a collector to learn how many retries the prefetch made
+        RequestTimings timings = RequestTimings.start();
+        try {
+            Optional<List<ProductDetail>> similarProducts = similarProductsService.executeInBackground(
+                    productId, maxParallelism, budget::tryReserve);
+            if (similarProducts.isEmpty()) {
+                budgetExhaustedCounter.increment();
+                return;
+            }
+            similarProductsCache.put(productId, similarProducts.get());
+            prefetched.put(productId, Boolean.TRUE);
+            issuedCounter.increment();
+        } catch (ProductNotFoundException e) {
+            logger.debug("Prefetched product not found: {}", productId);
+        } catch (RuntimeException e) {
+            logger.debug("Prefetch failed for product ID {}: {}", productId, e.getMessage());
+        } finally {
+            RequestTimings.clear();
+            budget.charge(timings.getRetries());
+        }
+    }
+
+    private boolean isWarm(String productId) {
+        return prefetched.getIfPresent(productId) != null
+                || similarProductsCache.get(productId) != null
+                || missingProductCache.contains(productId);
+    }
+
+    private void cancelPending() {
+        int cancelled = executor.getQueue().size();
+        executor.getQueue().clear();
+        if (cancelled > 0) {
+            cancelledCounter.increment(cancelled);
+        }
+    }
+
+    private static Counter prefetchCounter(String outcome, MeterRegistry meterRegistry) {
+        return Counter.builder("similarproducts.prefetch")
+                .description("Speculative prefetches by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static Counter effectivenessCounter(String outcome, MeterRegistry meterRegistry) {
+        return Counter.builder("similarproducts.prefetch.effectiveness")
+                .description("Prefetched products requested (hit) or not (wasted) within the window")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Token bucket refilled at a fixed rate, holding at most one second of
+     * tokens. Calls are reserved before they are issued, so a fan-out larger
+     * than the tokens available is never issued. Retries cannot be known in
+     * advance and are charged afterwards, which may leave the bucket in debt.
+     */
+    static final class UpstreamBudget {
+
+        private final double ratePerNano;
+        private final double capacity;
+        private double tokens;
+        private long lastRefillNanos;
+
+        UpstreamBudget(double ratePerSecond) {
+            this.ratePerNano = ratePerSecond / TimeUnit.SECONDS.toNanos(1);
+            this.capacity = ratePerSecond;
+            this.tokens = ratePerSecond;
+            this.lastRefillNanos = System.nanoTime();
+        }
+
+        /**
+         * Takes the tokens for the given number of calls if all of them are
+         * available.
+         */
+        synchronized boolean tryReserve(int calls) {
+            refill();
+            if (tokens < calls) {
+                return false;
+            }
+            tokens -= calls;
+            return true;
+        }
+
+        synchronized void charge(int calls) {
+            refill();
+            tokens -= calls;
+        }
+
+        private void refill() {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * ratePerNano);
+            lastRefillNanos = now;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.inditex.similarproducts.infrastructure.resilience;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Inbound admission control.
+ * <p>
+ * A request is admitted while the number of in-flight requests is below
+ * {@code load-shedding.max-in-flight} and the smoothed queueing delay observed
+ * by recent requests is below {@code load-shedding.max-queue-delay}. Requests
+ * report how long their fan-out waited for a worker while other requests held
+ * them, not the backlog of their own fan-out.
+ * </p>
+ * <p>
+ * The signal is forgotten when no request has reported one for a while, so the
+ * service keeps probing its capacity while shedding. A new signal starts from
+ * zero and only counts once {@value #MIN_SAMPLES} requests have reported, so a
+ * single slow request after an idle period does not start shedding.
+ * </p>
+ */
+@Component
+public class LoadShedder {
+
+    private static final double EWMA_WEIGHT = 0.2;
+    private static final long SAMPLE_TTL_NANOS = Duration.ofSeconds(1).toNanos();
+    private static final int MIN_SAMPLES = 5;
+
+    private final boolean enabled;
+    private final int maxInFlight;
+    private final long maxQueueDelayNanos;
+    private final Duration retryAfter;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double queueDelayNanos;
+    private volatile long lastSampleNanos;
+    private volatile int samples;
+
+    private final Counter cachedCounter;
+    private final Counter staleCounter;
+    private final Counter rejectedCounter;
+
+    public LoadShedder(
+            @Value("${load-shedding.enabled:true}") boolean enabled,
+            @Value("${load-shedding.max-in-flight:200}") int maxInFlight,
+            @Value("${load-shedding.max-queue-delay:250ms}") Duration maxQueueDelay,
+            @Value("${load-shedding.retry-after:1s}") Duration retryAfter,
+            MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.maxInFlight = maxInFlight;
+        this.maxQueueDelayNanos = maxQueueDelay.toNanos();
+        this.retryAfter = retryAfter;
+
+        Gauge.builder("similarproducts.loadshedding.inflight", inFlight, AtomicInteger::get)
+                .description("Requests currently being processed")
+                .register(meterRegistry);
+        this.cachedCounter = Counter.builder("similarproducts.loadshedding.shed")
+                .description("Requests shed because of overload")
+                .tag("outcome", "cached")
+                .register(meterRegistry);
+        this.staleCounter = Counter.builder("similarproducts.loadshedding.shed")
+                .description("Requests shed because of overload")
+                .tag("outcome", "stale")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("similarproducts.loadshedding.shed")
+                .description("Requests shed because of overload")
+                .tag("outcome", "rejected")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Tries to admit a request. Every successful call must be paired with
+     * {@link #release(long)}.
+     *
+     * @return true if the request was admitted, false if it must be shed
+     */
+    public boolean tryAcquire() {
+        int alreadyInFlight = inFlight.getAndIncrement();
+        if (enabled && isOverloaded(alreadyInFlight)) {
+            inFlight.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Releases an admitted request.
+     *
+     * @param queueDelayNanos the time the request's fan-out waited behind other
+     *                        requests, or 0 if it did not go through the fan-out
+     */
+    public void release(long queueDelayNanos) {
+        inFlight.decrementAndGet();
+        if (queueDelayNanos > 0) {
+            recordSample(queueDelayNanos);
+        }
+    }
+
+    /**
+     * Returns true if new requests would currently be shed.
+     */
+    public boolean isOverloaded() {
+        return enabled && isOverloaded(inFlight.get());
+    }
+
+    public void recordCached() {
+        cachedCounter.increment();
+    }
+
+    public void recordStale() {
+        staleCounter.increment();
+    }
+
+    public void recordRejected() {
+        rejectedCounter.increment();
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    /**
+     * Returns true if a request arriving with {@code alreadyInFlight} others
+     * admitted must be shed.
+     */
+    private boolean isOverloaded(int alreadyInFlight) {
+        return alreadyInFlight >= maxInFlight || queueDelayExceeded();
+    }
+
+    private synchronized void recordSample(long sampleNanos) {
+        long now = System.nanoTime();
+        if (isSampleExpired(now)) {
+            queueDelayNanos = 0;
+            samples = 0;
+        }
+        queueDelayNanos += EWMA_WEIGHT * (sampleNanos - queueDelayNanos);
+        samples++;
+        lastSampleNanos = now;
+    }
+
+    private boolean queueDelayExceeded() {
+        return samples >= MIN_SAMPLES
+                && queueDelayNanos > maxQueueDelayNanos
+                && !isSampleExpired(System.nanoTime());
+    }
+
+    private boolean isSampleExpired(long now) {
+        return now - lastSampleNanos > SAMPLE_TTL_NANOS;
+    }
+}
@@ -0,0 +1,195 @@
+package com.inditex.similarproducts.infrastructure.startup;
+
+import com.inditex.similarproducts.infrastructure.adapter.in.rest.SimilarProductsResponseEncoder;
+import com.inditex.similarproducts.infrastructure.adapter.out.peer.PeerCacheProductRepository;
+import com.inditex.similarproducts.infrastructure.adapter.out.rest.AdaptiveTimeouts;
+import com.inditex.similarproducts.infrastructure.adapter.out.rest.ProductRestClientAdapter;
+import com.inditex.similarproducts.infrastructure.adapter.out.rest.UpstreamBalancer;
+import com.inditex.similarproducts.infrastructure.cache.StaleRetainingCaffeineCache;
+import com.inditex.similarproducts.infrastructure.prefetch.SimilarProductsPrefetcher;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Warms up the request path before the application reports itself ready.
+ * <p>
+ * Application runners execute before the readiness state switches to
+ * ACCEPTING_TRAFFIC, so the readiness probe stays down until this completes.
+ * The warm-up sends synthetic HTTP requests to the application itself, so
+ * they go through the same server, filters, beans and proxies as live traffic
+ * (response cache, circuit breaker and retry), with the upstream calls
+ * diverted by the {@link UpstreamBalancer} to an in-process stub of the
+ * external API. It exercises the same code (JIT), fan-out workers, HTTP
+ * client and Jackson (de)serializers for every supported encoding, for both
+ * buffered and streamed responses.
+ * </p>
+ * <p>
+ * Prefetching and the peer cache tier are suspended meanwhile, so no synthetic
+ * request leaves the process. Afterwards the state the synthetic requests left
+ * behind is reset: the response cache is cleared, the circuit breaker is
+ * reset and the upstream latencies recorded for the adaptive timeouts are
+ * forgotten.
+ * </p>
+ * With {@code startup.warmup.exit=true} the application exits once the
+ * warm-up is done, which is used to train the class-data-sharing archive.
+ */
+@Component
+@ConditionalOnProperty(name = "startup.warmup.enabled", havingValue = "true")
+public class WarmUpRunner implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(WarmUpRunner.class);
+    private static final int PRODUCT_IDS = 50;
+    private static final int SIMILAR_IDS = 5;
+    private static final int LONG_SIMILAR_IDS = 40;
+    private static final String[] ACCEPT = {
+            null,
+            MediaType.APPLICATION_JSON_VALUE,
+            MediaType.APPLICATION_CBOR_VALUE,
+            SimilarProductsResponseEncoder.APPLICATION_SMILE_VALUE };
+
+    private final UpstreamBalancer upstreamBalancer;
+    private final AdaptiveTimeouts adaptiveTimeouts;
+    private final StaleRetainingCaffeineCache similarProductsCache;
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final SimilarProductsPrefetcher prefetcher;
+    private final ObjectProvider<PeerCacheProductRepository> peerCacheProductRepository;
+    private final ConfigurableApplicationContext context;
+    private final int iterations;
+    private final boolean exitAfterWarmUp;
+
+    public WarmUpRunner(
+            UpstreamBalancer upstreamBalancer,
+            AdaptiveTimeouts adaptiveTimeouts,
+            StaleRetainingCaffeineCache similarProductsCache,
+            CircuitBreakerRegistry circuitBreakerRegistry,
+            SimilarProductsPrefetcher prefetcher,
+            ObjectProvider<PeerCacheProductRepository> peerCacheProductRepository,
+            ConfigurableApplicationContext context,
+            @Value("${startup.warmup.iterations:500}") int iterations,
+            @Value("${startup.warmup.exit:false}") boolean exitAfterWarmUp) {
+        this.upstreamBalancer = upstreamBalancer;
+        this.adaptiveTimeouts = adaptiveTimeouts;
+        this.similarProductsCache = similarProductsCache;
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.prefetcher = prefetcher;
+        this.peerCacheProductRepository = peerCacheProductRepository;
+        this.context = context;
+        this.iterations = iterations;
+        this.exitAfterWarmUp = exitAfterWarmUp;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        long start = System.nanoTime();
+        ExecutorService stubExecutor = Executors.newFixedThreadPool(4);
+        HttpServer stub = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        stub.createContext("/product/", this::handleStubRequest);
+        stub.setExecutor(stubExecutor);
+        stub.start();
+
+        PeerCacheProductRepository peerTier = peerCacheProductRepository.getIfAvailable();
+        prefetcher.suspend();
+        if (peerTier != null) {
+            peerTier.suspend();
+        }
+        upstreamBalancer.divert("http://" + stub.getAddress().getHostString() + ":" + stub.getAddress().getPort());
+        try {
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .build();
+            String baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+            for (int i = 0; i < iterations; i++) {
+                HttpRequest.Builder request = HttpRequest.newBuilder(
+                        URI.create(baseUrl + "/product/" + (1 + i % PRODUCT_IDS) + "/similar"));
+                if (ACCEPT[i % ACCEPT.length] != null) {
+                    request.header("Accept", ACCEPT[i % ACCEPT.length]);
+                }
+                client.send(request.build(), HttpResponse.BodyHandlers.discarding());
+            }
+        } finally {
+            upstreamBalancer.restore();
+            stub.stop(0);
+            stubExecutor.shutdownNow();
+            resetState();
+            if (peerTier != null) {
+                peerTier.resume();
+            }
+            prefetcher.resume();
+        }
+
+        logger.info("Warm-up completed: {} requests in {} ms",
+                iterations, Duration.ofNanos(System.nanoTime() - start).toMillis());
+
+        if (exitAfterWarmUp) {
+            logger.info("Exiting after warm-up (startup.warmup.exit=true)");
+            System.exit(SpringApplication.exit(context));
+        }
+    }
+
+    /**
+     * Discards what the synthetic requests left in the shared state, so live
+     * traffic starts from a cold cache, a closed circuit breaker and the
+     * default timeouts.
+     */
+    private void resetState() {
+        similarProductsCache.clear();
+        circuitBreakerRegistry.circuitBreaker(ProductRestClientAdapter.CIRCUIT_BREAKER_NAME).reset();
+        adaptiveTimeouts.reset();
+    }
+
+    /**
+     * Stub of the external API: every product has {@value #SIMILAR_IDS}
+     * similar products, every tenth one {@value #LONG_SIMILAR_IDS} so that
+     * its response is streamed, and every product detail exists.
+     */
+    private void handleStubRequest(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        String body;
+        if (path.endsWith("/similarids")) {
+            int productId = Integer.parseInt(path.split("/")[2]);
+            StringBuilder ids = new StringBuilder("[");
+            int count = productId % 10 == 0 ? LONG_SIMILAR_IDS : SIMILAR_IDS;
+            for (int i = 1; i <= count; i++) {
+                ids.append(i > 1 ? "," : "").append('"').append(productId + i).append('"');
+            }
+            body = ids.append(']').toString();
+        } else {
+            String productId = path.substring("/product/".length());
+            body = "{\"id\":\"" + productId + "\",\"name\":\"Warm-up " + productId
+                    + "\",\"price\":9.99,\"availability\":true}";
+        }
+
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
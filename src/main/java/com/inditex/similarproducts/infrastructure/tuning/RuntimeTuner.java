@@ -0,0 +1,276 @@
+package com.inditex.similarproducts.infrastructure.tuning;
+
+import com.inditex.similarproducts.application.concurrent.FanOutScheduler;
+import com.inditex.similarproducts.infrastructure.adapter.out.rest.AdaptiveTimeouts;
+import com.inditex.similarproducts.infrastructure.cache.StaleRetainingCaffeineCache;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryConfig;
+import io.github.resilience4j.retry.RetryRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Applies performance settings to the running service.
+ * <p>
+ * A change is validated as a whole before anything is touched: the new
+ * circuit breaker and retry configurations, the adaptive timeout limits and
+ * every sizing value are built and checked first. Only then are the
+ * components whose settings changed updated. Should one of them still fail,
+ * the components already updated are restored (the previous circuit breaker
+ * and retry instances are put back as they were), so a change is applied
+ * completely or not at all. Every change is logged and kept in a bounded
+ * history; {@link #rollback(String)} undoes the latest change not yet rolled
+ * back.
+ * </p>
+ * Applying new circuit breaker or retry settings creates a new instance,
+ * which resets the circuit breaker state and statistics.
+ */
+@Component
+public class RuntimeTuner {
+
+    private static final Logger logger = LoggerFactory.getLogger(RuntimeTuner.class);
+    private static final String PRODUCT_SERVICE = "productService";
+
+    private final FanOutScheduler fanOutScheduler;
+    private final StaleRetainingCaffeineCache similarProductsCache;
+    private final AdaptiveTimeouts adaptiveTimeouts;
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final RetryRegistry retryRegistry;
+    private final int historySize;
+
+    private final Deque<TuningChange> history = new ArrayDeque<>();
+    private final Deque<TuningChange> undoStack = new ArrayDeque<>();
+    private long nextId = 1;
+
+    public RuntimeTuner(
+            FanOutScheduler fanOutScheduler,
+            StaleRetainingCaffeineCache similarProductsCache,
+            AdaptiveTimeouts adaptiveTimeouts,
+            CircuitBreakerRegistry circuitBreakerRegistry,
+            RetryRegistry retryRegistry,
+            @Value("${tuning.history-size:50}") int historySize) {
+        this.fanOutScheduler = fanOutScheduler;
+        this.similarProductsCache = similarProductsCache;
+        this.adaptiveTimeouts = adaptiveTimeouts;
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.retryRegistry = retryRegistry;
+        this.historySize = historySize;
+    }
+
+    /**
+     * Returns the settings currently in effect.
+     */
+    public synchronized TuningSettings current() {
+        CircuitBreakerConfig breakerConfig = circuitBreakerRegistry.circuitBreaker(PRODUCT_SERVICE)
+                .getCircuitBreakerConfig();
+        RetryConfig retryConfig = retryRegistry.retry(PRODUCT_SERVICE).getRetryConfig();
+        return new TuningSettings(
+                fanOutScheduler.getWorkerCount(),
+                fanOutScheduler.getMaxParallelismPerRequest(),
+                similarProductsCache.getTtl(),
+                similarProductsCache.getMaximumSize(),
+                adaptiveTimeouts.getFactor(),
+                adaptiveTimeouts.getFloorMillis(),
+                adaptiveTimeouts.getCeilingMillis(),
+                breakerConfig.getFailureRateThreshold(),
+                Duration.ofMillis(breakerConfig.getWaitIntervalFunctionInOpenState().apply(1)),
+                breakerConfig.getSlowCallDurationThreshold(),
+                retryConfig.getMaxAttempts());
+    }
+
+    /**
+     * Applies the given settings, keyed as in {@link TuningSettings}.
+     *
+     * @return the recorded change, or {@code null} if nothing changed
+     * @throws IllegalArgumentException if a key is unknown or a value invalid
+     */
+    public synchronized TuningChange apply(Map<String, String> overrides, String source) {
+        TuningSettings before = current();
+        return transition(before, before.with(overrides), source, false);
+    }
+
+    /**
+     * Restores the settings changed by the latest change not yet rolled back.
+     *
+     * @return the recorded rollback, or {@code null} if there is nothing to roll back
+     */
+    public synchronized TuningChange rollback(String source) {
+        TuningChange change = undoStack.pollLast();
+        if (change == null) {
+            return null;
+        }
+        TuningSettings before = current();
+        return transition(before, before.with(change.getBefore()), source, true);
+    }
+
+    /**
+     * Returns the recorded changes, oldest first.
+     */
+    public synchronized List<TuningChange> getHistory() {
+        return new ArrayList<>(history);
+    }
+
+    private TuningChange transition(TuningSettings before, TuningSettings after, String source, boolean rollback) {
+        Map<String, String> beforeValues = before.toMap();
+        Map<String, String> afterValues = after.toMap();
+        Map<String, String> changedBefore = new LinkedHashMap<>();
+        Map<String, String> changedAfter = new LinkedHashMap<>();
+        afterValues.forEach((key, value) -> {
+            if (!Objects.equals(beforeValues.get(key), value)) {
+                changedBefore.put(key, beforeValues.get(key));
+                changedAfter.put(key, value);
+            }
+        });
+        if (changedAfter.isEmpty()) {
+            return null;
+        }
+
+        List<Update> updates;
+        try {
+            updates = plan(before, after);
+        } catch (RuntimeException e) {
+            logger.warn("Tuning change from {} rejected: {}", source, e.getMessage());
+            throw e;
+        }
+        List<Update> applied = new ArrayList<>();
+        try {
+            for (Update update : updates) {
+                update.apply.run();
+                applied.add(update);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Tuning change from {} failed, restoring previous settings: {}", source, e.getMessage());
+            for (int i = applied.size() - 1; i >= 0; i--) {
+                applied.get(i).undo.run();
+            }
+            throw e;
+        }
+
+        TuningChange change = new TuningChange(nextId++, Instant.now(), source, rollback, changedBefore, changedAfter);
+        record(change);
+        logger.info("Tuning change #{} {}by {}: {} -> {}", change.getId(), rollback ? "(rollback) " : "",
+                source, changedBefore, changedAfter);
+        return change;
+    }
+
+    private void record(TuningChange change) {
+        history.addLast(change);
+        if (history.size() > historySize) {
+            history.removeFirst();
+        }
+        if (!change.isRollback()) {
+            undoStack.addLast(change);
+            if (undoStack.size() > historySize) {
+                undoStack.removeFirst();
+            }
+        }
+    }
+
+    /**
+     * Validates the new settings and prepares the update of every component
+     * whose settings differ, without touching any of them.
+     *
+     * @throws IllegalArgumentException if a value is invalid
+     */
+    private List<Update> plan(TuningSettings from, TuningSettings to) {
+        List<Update> updates = new ArrayList<>();
+        if (from.getTimeoutFactor() != to.getTimeoutFactor()
+                || from.getTimeoutFloorMillis() != to.getTimeoutFloorMillis()
+                || from.getTimeoutCeilingMillis() != to.getTimeoutCeilingMillis()) {
+            AdaptiveTimeouts.validate(to.getTimeoutFactor(), to.getTimeoutFloorMillis(), to.getTimeoutCeilingMillis());
+            updates.add(new Update(
+                    () -> adaptiveTimeouts.reconfigure(to.getTimeoutFactor(), to.getTimeoutFloorMillis(),
+                            to.getTimeoutCeilingMillis()),
+                    () -> adaptiveTimeouts.reconfigure(from.getTimeoutFactor(), from.getTimeoutFloorMillis(),
+                            from.getTimeoutCeilingMillis())));
+        }
+        if (from.getFanOutWorkers() != to.getFanOutWorkers()) {
+            requirePositive(to.getFanOutWorkers(), TuningSettings.FAN_OUT_WORKERS);
+            updates.add(new Update(
+                    () -> fanOutScheduler.resize(to.getFanOutWorkers()),
+                    () -> fanOutScheduler.resize(from.getFanOutWorkers())));
+        }
+        if (from.getFanOutMaxParallelismPerRequest() != to.getFanOutMaxParallelismPerRequest()) {
+            requirePositive(to.getFanOutMaxParallelismPerRequest(), TuningSettings.FAN_OUT_MAX_PARALLELISM);
+            updates.add(new Update(
+                    () -> fanOutScheduler.setMaxParallelismPerRequest(to.getFanOutMaxParallelismPerRequest()),
+                    () -> fanOutScheduler.setMaxParallelismPerRequest(from.getFanOutMaxParallelismPerRequest())));
+        }
+        if (!from.getCacheTtl().equals(to.getCacheTtl())) {
+            if (to.getCacheTtl().isNegative() || to.getCacheTtl().isZero()) {
+                throw new IllegalArgumentException(TuningSettings.CACHE_TTL + " must be positive");
+            }
+            updates.add(new Update(
+                    () -> similarProductsCache.setTtl(to.getCacheTtl()),
+                    () -> similarProductsCache.setTtl(from.getCacheTtl())));
+        }
+        if (from.getCacheMaximumSize() != to.getCacheMaximumSize()) {
+            if (to.getCacheMaximumSize() < 0) {
+                throw new IllegalArgumentException(TuningSettings.CACHE_MAXIMUM_SIZE + " must not be negative");
+            }
+            updates.add(new Update(
+                    () -> similarProductsCache.setMaximumSize(to.getCacheMaximumSize()),
+                    () -> similarProductsCache.setMaximumSize(from.getCacheMaximumSize())));
+        }
+        if (from.getBreakerFailureRateThreshold() != to.getBreakerFailureRateThreshold()
+                || !from.getBreakerWaitDurationInOpenState().equals(to.getBreakerWaitDurationInOpenState())
+                || !from.getBreakerSlowCallDurationThreshold().equals(to.getBreakerSlowCallDurationThreshold())) {
+            CircuitBreaker current = circuitBreakerRegistry.circuitBreaker(PRODUCT_SERVICE);
+            CircuitBreakerConfig config = CircuitBreakerConfig.from(current.getCircuitBreakerConfig())
+                    .failureRateThreshold(to.getBreakerFailureRateThreshold())
+                    .waitDurationInOpenState(to.getBreakerWaitDurationInOpenState())
+                    .slowCallDurationThreshold(to.getBreakerSlowCallDurationThreshold())
+                    .build();
+            CircuitBreaker replacement = CircuitBreaker.of(PRODUCT_SERVICE, config);
+            updates.add(new Update(
+                    () -> circuitBreakerRegistry.replace(PRODUCT_SERVICE, replacement),
+                    () -> circuitBreakerRegistry.replace(PRODUCT_SERVICE, current)));
+        }
+        if (from.getRetryMaxAttempts() != to.getRetryMaxAttempts()) {
+            Retry current = retryRegistry.retry(PRODUCT_SERVICE);
+            RetryConfig config = RetryConfig.from(current.getRetryConfig())
+                    .maxAttempts(to.getRetryMaxAttempts())
+                    .build();
+            Retry replacement = Retry.of(PRODUCT_SERVICE, config);
+            updates.add(new Update(
+                    () -> retryRegistry.replace(PRODUCT_SERVICE, replacement),
+                    () -> retryRegistry.replace(PRODUCT_SERVICE, current)));
+        }
+        return updates;
+    }
+
+    private static void requirePositive(long value, String key) {
+        if (value < 1) {
+            throw new IllegalArgumentException(key + " must be positive");
+        }
+    }
+
+    /**
+     * Pending update of one component, with the action restoring it.
+     */
+    private static final class Update {
+
+        private final Runnable apply;
+        private final Runnable undo;
+
+        private Update(Runnable apply, Runnable undo) {
+            this.apply = apply;
+            this.undo = undo;
+        }
+    }
+}
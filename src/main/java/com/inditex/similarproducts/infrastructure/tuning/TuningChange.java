@@ -0,0 +1,20 @@
+package com.inditex.similarproducts.infrastructure.tuning;
+
+import lombok.Value;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Audit record of a runtime settings change: the changed settings before and
+ * after, who made it and whether it was a rollback.
+ */
+@Value
+public class TuningChange {
+    long id;
+    Instant timestamp;
+    String source;
+    boolean rollback;
+    Map<String, String> before;
+    Map<String, String> after;
+}
@@ -0,0 +1,83 @@
+package com.inditex.similarproducts.infrastructure.tuning;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Actuator endpoint ({@code /actuator/tuning}) to inspect and change the
+ * performance settings at runtime.
+ * <ul>
+ *   <li>{@code GET} returns the current settings and the change history.</li>
+ *   <li>{@code POST} with a JSON body of the settings to change applies them
+ *   as one change.</li>
+ *   <li>{@code DELETE} rolls back the latest change.</li>
+ * </ul>
+ */
+@Component
+@Endpoint(id = "tuning")
+public class TuningEndpoint {
+
+    private static final String SOURCE = "actuator";
+
+    private final RuntimeTuner runtimeTuner;
+
+    public TuningEndpoint(RuntimeTuner runtimeTuner) {
+        this.runtimeTuner = runtimeTuner;
+    }
+
+    @ReadOperation
+    public Map<String, Object> tuning() {
+        Map<String, Object> tuning = new LinkedHashMap<>();
+        tuning.put("settings", runtimeTuner.current().toMap());
+        tuning.put("history", runtimeTuner.getHistory());
+        return tuning;
+    }
+
+    @WriteOperation
+    public Map<String, Object> update(
+            @Nullable String fanOutWorkers,
+            @Nullable String fanOutMaxParallelismPerRequest,
+            @Nullable String cacheTtl,
+            @Nullable String cacheMaximumSize,
+            @Nullable String timeoutFactor,
+            @Nullable String timeoutFloor,
+            @Nullable String timeoutCeiling,
+            @Nullable String breakerFailureRateThreshold,
+            @Nullable String breakerWaitDurationInOpenState,
+            @Nullable String breakerSlowCallDurationThreshold,
+            @Nullable String retryMaxAttempts) {
+        Map<String, String> overrides = new LinkedHashMap<>();
+        put(overrides, TuningSettings.FAN_OUT_WORKERS, fanOutWorkers);
+        put(overrides, TuningSettings.FAN_OUT_MAX_PARALLELISM, fanOutMaxParallelismPerRequest);
+        put(overrides, TuningSettings.CACHE_TTL, cacheTtl);
+        put(overrides, TuningSettings.CACHE_MAXIMUM_SIZE, cacheMaximumSize);
+        put(overrides, TuningSettings.TIMEOUT_FACTOR, timeoutFactor);
+        put(overrides, TuningSettings.TIMEOUT_FLOOR, timeoutFloor);
+        put(overrides, TuningSettings.TIMEOUT_CEILING, timeoutCeiling);
+        put(overrides, TuningSettings.BREAKER_FAILURE_RATE_THRESHOLD, breakerFailureRateThreshold);
+        put(overrides, TuningSettings.BREAKER_WAIT_DURATION_IN_OPEN_STATE, breakerWaitDurationInOpenState);
+        put(overrides, TuningSettings.BREAKER_SLOW_CALL_DURATION_THRESHOLD, breakerSlowCallDurationThreshold);
+        put(overrides, TuningSettings.RETRY_MAX_ATTEMPTS, retryMaxAttempts);
+        runtimeTuner.apply(overrides, SOURCE);
+        return tuning();
+    }
+
+    @DeleteOperation
+    public Map<String, Object> rollback() {
+        runtimeTuner.rollback(SOURCE);
+        return tuning();
+    }
+
+    private static void put(Map<String, String> overrides, String key, @Nullable String value) {
+        if (value != null) {
+            overrides.put(key, value);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.inditex.similarproducts.infrastructure.tuning;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies the settings of an external properties file ({@code tuning.file})
+ * whenever the file is modified.
+ * <p>
+ * The file uses the keys of {@link TuningSettings}, e.g.
+ * {@code fan-out.workers=20}. Its content is applied as one change when the
+ * service starts and again after every modification; changes made through
+ * the actuator endpoint in between are kept until the file changes.
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(name = "tuning.file")
+public class TuningFileWatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(TuningFileWatcher.class);
+
+    private final RuntimeTuner runtimeTuner;
+    private final Path file;
+    private final ScheduledExecutorService watcher;
+    private FileTime lastModified;
+
+    public TuningFileWatcher(
+            RuntimeTuner runtimeTuner,
+            @Value("${tuning.file}") String file,
+            @Value("${tuning.file-poll-interval:5s}") Duration pollInterval) {
+        this.runtimeTuner = runtimeTuner;
+        this.file = Paths.get(file);
+        this.watcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "tuning-file-watcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.watcher.scheduleWithFixedDelay(this::poll, 0, pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        watcher.shutdownNow();
+    }
+
+    void poll() {
+        try {
+            if (!Files.isRegularFile(file)) {
+                return;
+            }
+            FileTime modified = Files.getLastModifiedTime(file);
+            if (modified.equals(lastModified)) {
+                return;
+            }
+            lastModified = modified;
+            runtimeTuner.apply(read(), "file:" + file);
+        } catch (IOException | IllegalArgumentException e) {
+            logger.warn("Could not apply tuning file {}: {}", file, e.getMessage());
+        }
+    }
+
+    private Map<String, String> read() throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        Map<String, String> settings = new LinkedHashMap<>();
+        properties.stringPropertyNames().forEach(key -> settings.put(key.trim(), properties.getProperty(key)));
+        return settings;
+    }
+}
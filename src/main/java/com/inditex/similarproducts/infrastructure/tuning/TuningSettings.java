@@ -0,0 +1,115 @@
+package com.inditex.similarproducts.infrastructure.tuning;
+
+import lombok.Value;
+import lombok.With;
+import org.springframework.boot.convert.DurationStyle;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Snapshot of the performance settings that can be changed at runtime.
+ * <p>
+ * Settings are addressed with the same keys, in the same format, as in
+ * {@code application.yml}, so a line of the configuration can be used as
+ * is. Durations accept the usual Spring Boot formats ({@code 500ms},
+ * {@code 10s}, ...).
+ * </p>
+ */
+@Value
+@With
+public class TuningSettings {
+
+    public static final String FAN_OUT_WORKERS = "fan-out.workers";
+    public static final String FAN_OUT_MAX_PARALLELISM = "fan-out.max-parallelism-per-request";
+    public static final String CACHE_TTL = "cache.similar-products.ttl";
+    public static final String CACHE_MAXIMUM_SIZE = "cache.similar-products.maximum-size";
+    public static final String TIMEOUT_FACTOR = "external.api.timeout.adaptive.factor";
+    public static final String TIMEOUT_FLOOR = "external.api.timeout.adaptive.floor";
+    public static final String TIMEOUT_CEILING = "external.api.timeout.adaptive.ceiling";
+    public static final String BREAKER_FAILURE_RATE_THRESHOLD =
+            "resilience4j.circuitbreaker.instances.productService.failureRateThreshold";
+    public static final String BREAKER_WAIT_DURATION_IN_OPEN_STATE =
+            "resilience4j.circuitbreaker.instances.productService.waitDurationInOpenState";
+    public static final String BREAKER_SLOW_CALL_DURATION_THRESHOLD =
+            "resilience4j.circuitbreaker.instances.productService.slowCallDurationThreshold";
+    public static final String RETRY_MAX_ATTEMPTS = "resilience4j.retry.instances.productService.maxAttempts";
+
+    int fanOutWorkers;
+    int fanOutMaxParallelismPerRequest;
+    Duration cacheTtl;
+    long cacheMaximumSize;
+    double timeoutFactor;
+    long timeoutFloorMillis;
+    long timeoutCeilingMillis;
+    float breakerFailureRateThreshold;
+    Duration breakerWaitDurationInOpenState;
+    Duration breakerSlowCallDurationThreshold;
+    int retryMaxAttempts;
+
+    /**
+     * Returns a copy with the given settings overridden.
+     *
+     * @throws IllegalArgumentException if a key is unknown or a value invalid
+     */
+    public TuningSettings with(Map<String, String> overrides) {
+        TuningSettings settings = this;
+        for (Map.Entry<String, String> override : overrides.entrySet()) {
+            settings = settings.with(override.getKey(), override.getValue().trim());
+        }
+        return settings;
+    }
+
+    private TuningSettings with(String key, String value) {
+        try {
+            switch (key) {
+                case FAN_OUT_WORKERS:
+                    return withFanOutWorkers(Integer.parseInt(value));
+                case FAN_OUT_MAX_PARALLELISM:
+                    return withFanOutMaxParallelismPerRequest(Integer.parseInt(value));
+                case CACHE_TTL:
+                    return withCacheTtl(DurationStyle.detectAndParse(value));
+                case CACHE_MAXIMUM_SIZE:
+                    return withCacheMaximumSize(Long.parseLong(value));
+                case TIMEOUT_FACTOR:
+                    return withTimeoutFactor(Double.parseDouble(value));
+                case TIMEOUT_FLOOR:
+                    return withTimeoutFloorMillis(Long.parseLong(value));
+                case TIMEOUT_CEILING:
+                    return withTimeoutCeilingMillis(Long.parseLong(value));
+                case BREAKER_FAILURE_RATE_THRESHOLD:
+                    return withBreakerFailureRateThreshold(Float.parseFloat(value));
+                case BREAKER_WAIT_DURATION_IN_OPEN_STATE:
+                    return withBreakerWaitDurationInOpenState(DurationStyle.detectAndParse(value));
+                case BREAKER_SLOW_CALL_DURATION_THRESHOLD:
+                    return withBreakerSlowCallDurationThreshold(DurationStyle.detectAndParse(value));
+                case RETRY_MAX_ATTEMPTS:
+                    return withRetryMaxAttempts(Integer.parseInt(value));
+                default:
+                    throw new IllegalArgumentException("Unknown tunable setting: " + key);
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid value for " + key + ": " + value, e);
+        }
+    }
+
+    /**
+     * Returns the settings by key, in a stable order.
+     */
+    public Map<String, String> toMap() {
+        Map<String, String> map = new LinkedHashMap<>();
+        map.put(FAN_OUT_WORKERS, String.valueOf(fanOutWorkers));
+        map.put(FAN_OUT_MAX_PARALLELISM, String.valueOf(fanOutMaxParallelismPerRequest));
+        map.put(CACHE_TTL, DurationStyle.SIMPLE.print(cacheTtl));
+        map.put(CACHE_MAXIMUM_SIZE, String.valueOf(cacheMaximumSize));
+        map.put(TIMEOUT_FACTOR, String.valueOf(timeoutFactor));
+        map.put(TIMEOUT_FLOOR, String.valueOf(timeoutFloorMillis));
+        map.put(TIMEOUT_CEILING, String.valueOf(timeoutCeilingMillis));
+        map.put(BREAKER_FAILURE_RATE_THRESHOLD, String.valueOf(breakerFailureRateThreshold));
+        map.put(BREAKER_WAIT_DURATION_IN_OPEN_STATE, DurationStyle.SIMPLE.print(breakerWaitDurationInOpenState));
+        map.put(BREAKER_SLOW_CALL_DURATION_THRESHOLD, DurationStyle.SIMPLE.print(breakerSlowCallDurationThreshold));
+        map.put(RETRY_MAX_ATTEMPTS, String.valueOf(retryMaxAttempts));
+        return map;
+    }
+}
@@ -0,0 +1,147 @@
+package com.inditex.similarproducts.application.concurrent;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FanOutSchedulerTest {
+
+    private FanOutScheduler scheduler;
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    void newBatch_shouldServeRequestsRoundRobin() throws InterruptedException {
+        scheduler = new FanOutScheduler(1, 4);
+        List<String> order = new CopyOnWriteArrayList<>();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch completed = new CountDownLatch(6);
+
+        Executor large = scheduler.newBatch();
+        large.execute(() -> {
+            started.countDown();
+            await(release);
+            order.add("large-0");
+            completed.countDown();
+        });
+        for (int i = 1; i < 5; i++) {
+            String name = "large-" + i;
+            large.execute(() -> {
+                order.add(name);
+                completed.countDown();
+            });
+        }
+        assertThat(started.await(1, TimeUnit.SECONDS)).isTrue();
+
+        Executor small = scheduler.newBatch();
+        small.execute(() -> {
+            order.add("small");
+            completed.countDown();
+        });
+        release.countDown();
+
+        assertThat(completed.await(1, TimeUnit.SECONDS)).isTrue();
+        assertThat(order.indexOf("small")).isEqualTo(2);
+    }
+
+    @Test
+    void newBatch_shouldCapParallelismPerRequest_whenOtherRequestsAreWaiting() throws InterruptedException {
+        scheduler = new FanOutScheduler(4, 2);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        CountDownLatch completed = new CountDownLatch(8);
+        CountDownLatch otherCompleted = new CountDownLatch(12);
+
+        Executor other = scheduler.newBatch();
+        for (int i = 0; i < 12; i++) {
+            other.execute(() -> {
+                sleep(100);
+                otherCompleted.countDown();
+            });
+        }
+        Executor batch = scheduler.newBatch();
+        for (int i = 0; i < 8; i++) {
+            batch.execute(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                sleep(20);
+                running.decrementAndGet();
+                completed.countDown();
+            });
+        }
+
+        assertThat(completed.await(2, TimeUnit.SECONDS)).isTrue();
+        assertThat(maxRunning.get()).isEqualTo(2);
+        assertThat(otherCompleted.await(2, TimeUnit.SECONDS)).isTrue();
+        assertThat(scheduler.getQueuedTasks()).isZero();
+    }
+
+    @Test
+    void newBatch_shouldRunSmallRequestFullyInParallel_whenIdle() throws InterruptedException {
+        scheduler = new FanOutScheduler(10, 4);
+        CountDownLatch started = new CountDownLatch(5);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Executor batch = scheduler.newBatch();
+        for (int i = 0; i < 5; i++) {
+            batch.execute(() -> {
+                started.countDown();
+                await(release);
+            });
+        }
+
+        try {
+            assertThat(started.await(1, TimeUnit.SECONDS)).isTrue();
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void newBatch_shouldApplyLowerParallelism_whenGiven() throws InterruptedException {
+        scheduler = new FanOutScheduler(4, 2);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        CountDownLatch completed = new CountDownLatch(4);
+
+        Executor batch = scheduler.newBatch(1);
+        for (int i = 0; i < 4; i++) {
+            batch.execute(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                sleep(20);
+                running.decrementAndGet();
+                completed.countDown();
+            });
+        }
+
+        assertThat(completed.await(2, TimeUnit.SECONDS)).isTrue();
+        assertThat(maxRunning.get()).isEqualTo(1);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
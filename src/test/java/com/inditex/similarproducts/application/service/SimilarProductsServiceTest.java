@@ -1,17 +1,26 @@
 package com.inditex.similarproducts.application.service;
 
+import com.inditex.similarproducts.application.concurrent.FanOutScheduler;
+import com.inditex.similarproducts.application.timing.RequestTimings;
 import com.inditex.similarproducts.domain.model.ProductDetail;
 import com.inditex.similarproducts.domain.port.out.ProductRepositoryPort;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -27,12 +36,17 @@ class SimilarProductsServiceTest {
     private ProductRepositoryPort productRepository;
 
     private SimilarProductsService service;
-    private Executor executor;
+    private FanOutScheduler fanOutScheduler;
 
     @BeforeEach
     void setUp() {
-        executor = Executors.newFixedThreadPool(5);
-        service = new SimilarProductsService(productRepository, executor);
+        fanOutScheduler = new FanOutScheduler(5, 2);
+        service = new SimilarProductsService(productRepository, fanOutScheduler, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        fanOutScheduler.shutdown();
     }
 
     @Test
@@ -119,4 +133,85 @@ class SimilarProductsServiceTest {
         assertThat(result).hasSize(1);
         assertThat(result).contains(product3);
     }
+
+    @Test
+    void execute_shouldFetchRepeatedIdsOnce_andKeepTheirPositions() {
+        // Arrange
+        String productId = "1";
+        ProductDetail product2 = new ProductDetail("2", "Product 2", 29.99, true);
+        ProductDetail product3 = new ProductDetail("3", "Product 3", 39.99, false);
+
+        when(productRepository.getSimilarProductIds(productId)).thenReturn(List.of("2", "3", "2", "3", "2"));
+        when(productRepository.getProductDetail("2")).thenReturn(Optional.of(product2));
+        when(productRepository.getProductDetail("3")).thenReturn(Optional.of(product3));
+
+        // Act
+        List<ProductDetail> result = service.execute(productId);
+
+        // Assert
+        assertThat(result).containsExactly(product2, product3, product2, product3, product2);
+        verify(productRepository, times(1)).getProductDetail("2");
+        verify(productRepository, times(1)).getProductDetail("3");
+    }
+
+    @Test
+    void stream_shouldEmitOrderedPrefix_beforeLaterProductsComplete() throws Exception {
+        // Arrange
+        String productId = "1";
+        ProductDetail product2 = new ProductDetail("2", "Product 2", 29.99, true);
+        ProductDetail product3 = new ProductDetail("3", "Product 3", 39.99, false);
+        ProductDetail product4 = new ProductDetail("4", "Product 4", 49.99, true);
+        CountDownLatch slowProduct = new CountDownLatch(1);
+
+        when(productRepository.getSimilarProductIds(productId)).thenReturn(List.of("2", "3", "4"));
+        when(productRepository.getProductDetail("2")).thenReturn(Optional.of(product2));
+        when(productRepository.getProductDetail("3")).thenReturn(Optional.of(product3));
+        when(productRepository.getProductDetail("4")).thenAnswer(invocation -> {
+            slowProduct.await(1, TimeUnit.SECONDS);
+            return Optional.of(product4);
+        });
+        BlockingQueue<ProductDetail> emitted = new LinkedBlockingQueue<>();
+
+        // Act
+        CompletableFuture<Void> streaming = CompletableFuture.runAsync(() -> service.stream(productId, emitted::add));
+
+        // Assert
+        assertThat(emitted.poll(1, TimeUnit.SECONDS)).isEqualTo(product2);
+        assertThat(emitted.poll(1, TimeUnit.SECONDS)).isEqualTo(product3);
+        assertThat(streaming).isNotDone();
+
+        slowProduct.countDown();
+        streaming.get(1, TimeUnit.SECONDS);
+        assertThat(emitted).containsExactly(product4);
+    }
+
+    @Test
+    void execute_shouldRecordNoQueueDelay_forOneLargeRequestOnIdleScheduler() {
+        // Arrange: 32 products at 40ms each on 10 idle workers, above the cap of 4
+        fanOutScheduler.shutdown();
+        fanOutScheduler = new FanOutScheduler(10, 4);
+        service = new SimilarProductsService(productRepository, fanOutScheduler, 32);
+        String productId = "1";
+        List<String> similarIds = IntStream.rangeClosed(2, 33)
+                .mapToObj(String::valueOf)
+                .collect(Collectors.toList());
+
+        when(productRepository.getSimilarProductIds(productId)).thenReturn(similarIds);
+        when(productRepository.getProductDetail(anyString())).thenAnswer(invocation -> {
+            Thread.sleep(40);
+            return Optional.of(new ProductDetail(invocation.getArgument(0), "Product", 9.99, true));
+        });
+
+        // Act
+        RequestTimings timings = RequestTimings.start();
+        try {
+            assertThat(service.execute(productId)).hasSize(32);
+        } finally {
+            RequestTimings.clear();
+        }
+
+        // Assert: the request waited for its own earlier fetches for ~160ms, but never for another request
+        assertThat(timings.get(RequestTimings.DETAILS)).isGreaterThan(Duration.ofMillis(120).toNanos());
+        assertThat(timings.get(RequestTimings.QUEUE)).isLessThan(Duration.ofMillis(40).toNanos());
+    }
 }
@@ -0,0 +1,168 @@
+package com.inditex.similarproducts.benchmark;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.inditex.similarproducts.SimilarProductsApplication;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Startup benchmark, run with {@code mvn -Pbenchmark test}.
+ * <p>
+ * Starts the application in a fresh JVM (per profile) against a WireMock
+ * upstream and measures:
+ * <ul>
+ * <li>time-to-ready: from process start until the readiness probe is UP;</li>
+ * <li>time-to-steady-state: from readiness until the median latency of a batch
+ * of uncached requests stays within {@value #STEADY_TOLERANCE} of the previous
+ * batch for {@value #STEADY_BATCHES} consecutive batches.</li>
+ * </ul>
+ * Extra JVM options (e.g. {@code -XX:SharedArchiveFile=target/app-cds.jsa})
+ * can be passed with {@code -Dbenchmark.jvmArgs}.
+ * </p>
+ */
+@Tag("benchmark")
+class StartupBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupBenchmarkTest.class);
+
+    private static final int BATCH_SIZE = 20;
+    private static final int MAX_BATCHES = 200;
+    private static final int STEADY_BATCHES = 3;
+    private static final double STEADY_TOLERANCE = 0.1;
+    private static final Duration READY_TIMEOUT = Duration.ofMinutes(2);
+
+    private static WireMockServer upstream;
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(1))
+            .build();
+
+    @BeforeAll
+    static void startUpstream() {
+        upstream = new WireMockServer(options().dynamicPort());
+        upstream.start();
+        upstream.stubFor(get(urlPathMatching("/product/[0-9]+/similarids"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withBody("[\"1\", \"2\", \"3\", \"4\", \"5\"]")));
+        upstream.stubFor(get(urlPathMatching("/product/[0-9]+"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withBody("{\"id\":\"1\",\"name\":\"Dress\",\"price\":19.99,\"availability\":true}")));
+    }
+
+    @AfterAll
+    static void stopUpstream() {
+        upstream.stop();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"default", "fast-startup"})
+    void measureStartup(String profile) throws Exception {
+        int port = freePort();
+        long start = System.nanoTime();
+        Process process = startApplication(profile, port);
+        try {
+            long timeToReady = waitUntilReady(port, start);
+            long timeToSteadyState = waitUntilSteadyState(port);
+
+            logger.info("Startup benchmark: profile={} time-to-ready={} ms time-to-steady-state={} ms",
+                    profile, Duration.ofNanos(timeToReady).toMillis(), Duration.ofNanos(timeToSteadyState).toMillis());
+            assertThat(timeToReady).isPositive();
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    private Process startApplication(String profile, int port) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        String jvmArgs = System.getProperty("benchmark.jvmArgs", "").trim();
+        if (!jvmArgs.isEmpty()) {
+            command.addAll(Arrays.asList(jvmArgs.split("\\s+")));
+        }
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(SimilarProductsApplication.class.getName());
+        command.add("--server.port=" + port);
+        command.add("--external.api.base-url=" + upstream.baseUrl());
+        command.add("--spring.profiles.active=" + profile);
+        return new ProcessBuilder(command)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+    }
+
+    private long waitUntilReady(int port, long start) throws Exception {
+        URI readiness = URI.create("http://localhost:" + port + "/actuator/health/readiness");
+        long deadline = start + READY_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            try {
+                if (client.send(HttpRequest.newBuilder(readiness).build(),
+                        HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return System.nanoTime() - start;
+                }
+            } catch (IOException e) {
+                // Not listening yet
+            }
+            Thread.sleep(10);
+        }
+        throw new IllegalStateException("Application not ready after " + READY_TIMEOUT);
+    }
+
+    /**
+     * Sends batches of requests for distinct (uncached) products until the batch
+     * median latency stabilizes, and returns the elapsed time.
+     */
+    private long waitUntilSteadyState(int port) throws Exception {
+        long start = System.nanoTime();
+        long previousMedian = Long.MAX_VALUE;
+        int stableBatches = 0;
+        int productId = 1;
+        for (int batch = 0; batch < MAX_BATCHES && stableBatches < STEADY_BATCHES; batch++) {
+            long[] latencies = new long[BATCH_SIZE];
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                URI uri = URI.create("http://localhost:" + port + "/product/" + productId++ + "/similar");
+                long requestStart = System.nanoTime();
+                client.send(HttpRequest.newBuilder(uri).build(), HttpResponse.BodyHandlers.discarding());
+                latencies[i] = System.nanoTime() - requestStart;
+            }
+            Arrays.sort(latencies);
+            long median = latencies[BATCH_SIZE / 2];
+            stableBatches = Math.abs(median - previousMedian) <= previousMedian * STEADY_TOLERANCE
+                    ? stableBatches + 1
+                    : 0;
+            previousMedian = median;
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
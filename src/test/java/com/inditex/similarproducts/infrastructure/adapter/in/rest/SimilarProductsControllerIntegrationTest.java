@@ -4,6 +4,8 @@ import com.inditex.similarproducts.domain.model.ProductDetail;
 import com.inditex.similarproducts.infrastructure.mapper.ProductMapper;
 import com.inditex.similarproducts.infrastructure.adapter.out.rest.ProductDetailDto;
 import com.inditex.similarproducts.infrastructure.adapter.in.rest.ProductResponseDto;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.tomakehurst.wiremock.WireMockServer;
 import com.github.tomakehurst.wiremock.client.WireMock;
 import org.junit.jupiter.api.AfterAll;
@@ -15,10 +17,16 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.cache.CacheManager;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.util.List;
+import java.util.Map;
+
 import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.when;
@@ -32,7 +40,9 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @SpringBootTest
 @AutoConfigureMockMvc
 @TestPropertySource(properties = {
-                "external.api.base-url=http://localhost:3001"
+                "external.api.base-url=http://localhost:3001",
+                "observability.server-timing.enabled=true",
+                "prefetch.enabled=false"
 })
 class SimilarProductsControllerIntegrationTest {
 
@@ -215,4 +225,129 @@ class SimilarProductsControllerIntegrationTest {
                 verify(1, getRequestedFor(urlEqualTo("/product/1/similarids")));
                 verify(1, getRequestedFor(urlEqualTo("/product/2")));
         }
+
+        @Test
+        void getSimilarProducts_shouldExposeServerTiming_whenEnabled() throws Exception {
+                // Arrange
+                stubFor(WireMock.get(urlEqualTo("/product/1/similarids"))
+                                .willReturn(aResponse()
+                                                .withStatus(200)
+                                                .withHeader("Content-Type", "application/json")
+                                                .withBody("[\"2\"]")));
+
+                stubFor(WireMock.get(urlEqualTo("/product/2"))
+                                .willReturn(aResponse()
+                                                .withStatus(200)
+                                                .withHeader("Content-Type", "application/json")
+                                                .withBody("{\"id\":\"2\",\"name\":\"Dress\",\"price\":19.99,\"availability\":true}")));
+
+                // Act & Assert
+                mockMvc.perform(get("/product/1/similar"))
+                                .andExpect(status().isOk())
+                                .andExpect(header().string("Server-Timing",
+                                                matchesPattern(".*similarids;dur=.*queue;dur=.*details;dur=.*app;dur=.*")));
+        }
+
+        @Test
+        void getSimilarProducts_shouldNotCallUpstream_whenProductKnownMissing() throws Exception {
+                // Arrange
+                stubFor(WireMock.get(urlEqualTo("/product/998/similarids"))
+                                .willReturn(aResponse()
+                                                .withStatus(404)));
+
+                // Act
+                mockMvc.perform(get("/product/998/similar")).andExpect(status().isNotFound());
+                mockMvc.perform(get("/product/998/similar"))
+                                .andExpect(status().isNotFound())
+                                .andExpect(content().contentType("application/json"))
+                                .andExpect(jsonPath("$.status").value(404))
+                                .andExpect(jsonPath("$.message").value("Product not found with ID: 998"));
+
+                // Assert
+                verify(1, getRequestedFor(urlEqualTo("/product/998/similarids")));
+        }
+
+        @Test
+        void getSimilarProducts_shouldEncodeCbor_whenAccepted() throws Exception {
+                // Arrange
+                stubFor(WireMock.get(urlEqualTo("/product/1/similarids"))
+                                .willReturn(aResponse()
+                                                .withStatus(200)
+                                                .withHeader("Content-Type", "application/json")
+                                                .withBody("[\"2\"]")));
+
+                stubFor(WireMock.get(urlEqualTo("/product/2"))
+                                .willReturn(aResponse()
+                                                .withStatus(200)
+                                                .withHeader("Content-Type", "application/json")
+                                                .withBody("{\"id\":\"2\",\"name\":\"Dress\",\"price\":19.99,\"availability\":true}")));
+
+                // Act
+                byte[] body = mockMvc.perform(get("/product/1/similar").accept(MediaType.APPLICATION_CBOR))
+                                .andExpect(status().isOk())
+                                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                                .andReturn().getResponse().getContentAsByteArray();
+
+                // Assert
+                ObjectMapper cborMapper = Jackson2ObjectMapperBuilder.cbor().build();
+                List<ProductResponseDto> products = cborMapper.readValue(body,
+                                new TypeReference<List<ProductResponseDto>>() {
+                                });
+                assertThat(products).containsExactly(new ProductResponseDto("2", "Dress", 19.99, true));
+        }
+
+        @Test
+        void getSimilarProducts_shouldEncodeNotFoundAsCbor_whenAccepted() throws Exception {
+                // Arrange
+                stubFor(WireMock.get(urlEqualTo("/product/997/similarids"))
+                                .willReturn(aResponse()
+                                                .withStatus(404)));
+
+                // Act
+                byte[] body = mockMvc.perform(get("/product/997/similar").accept(MediaType.APPLICATION_CBOR))
+                                .andExpect(status().isNotFound())
+                                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                                .andReturn().getResponse().getContentAsByteArray();
+
+                // Assert
+                ObjectMapper cborMapper = Jackson2ObjectMapperBuilder.cbor().build();
+                Map<String, Object> error = cborMapper.readValue(body, new TypeReference<Map<String, Object>>() {
+                });
+                assertThat(error).containsEntry("status", 404)
+                                .containsEntry("error", "Not Found")
+                                .containsEntry("message", "Product not found with ID: 997");
+        }
+
+        @Test
+        void getSimilarProducts_shouldStreamInOrderWithoutCaching_whenAboveThreshold() throws Exception {
+                // Arrange: 40 similar products, above the default threshold of 32
+                StringBuilder similarIds = new StringBuilder("[");
+                for (int id = 100; id < 140; id++) {
+                        similarIds.append(id > 100 ? "," : "").append('"').append(id).append('"');
+                        stubFor(WireMock.get(urlEqualTo("/product/" + id))
+                                        .willReturn(aResponse()
+                                                        .withStatus(200)
+                                                        .withHeader("Content-Type", "application/json")
+                                                        .withBody("{\"id\":\"" + id + "\",\"name\":\"Product " + id
+                                                                        + "\",\"price\":9.99,\"availability\":true}")));
+                }
+                stubFor(WireMock.get(urlEqualTo("/product/5/similarids"))
+                                .willReturn(aResponse()
+                                                .withStatus(200)
+                                                .withHeader("Content-Type", "application/json")
+                                                .withBody(similarIds.append(']').toString())));
+
+                // Act & Assert
+                for (int i = 0; i < 2; i++) {
+                        mockMvc.perform(get("/product/5/similar"))
+                                        .andExpect(status().isOk())
+                                        .andExpect(content().contentType("application/json"))
+                                        .andExpect(header().doesNotExist("Server-Timing"))
+                                        .andExpect(jsonPath("$", hasSize(40)))
+                                        .andExpect(jsonPath("$[0].id").value("100"))
+                                        .andExpect(jsonPath("$[32].id").value("132"))
+                                        .andExpect(jsonPath("$[39].id").value("139"));
+                }
+                verify(2, getRequestedFor(urlEqualTo("/product/5/similarids")));
+        }
 }
@@ -0,0 +1,181 @@
+package com.inditex.similarproducts.infrastructure.adapter.out.peer;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.inditex.similarproducts.SimilarProductsApplication;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Integration tests for the peer cache tier.
+ * Starts three in-process replicas on localhost sharing a WireMock upstream,
+ * and warms up the peer paths of every replica before the tests run.
+ */
+class PeerCacheIntegrationTest {
+
+    private static final int REPLICAS = 3;
+    private static final String SECRET = "test-secret";
+
+    private static WireMockServer upstream;
+    private static final List<ConfigurableApplicationContext> replicas = new ArrayList<>();
+    private static final List<String> replicaUrls = new ArrayList<>();
+
+    private final RestTemplate client = new RestTemplate();
+
+    @BeforeAll
+    static void startReplicas() throws IOException {
+        upstream = new WireMockServer(options().dynamicPort());
+        upstream.start();
+
+        List<Integer> ports = new ArrayList<>();
+        for (int i = 0; i < REPLICAS; i++) {
+            ports.add(freePort());
+        }
+        replicaUrls.addAll(ports.stream().map(port -> "http://localhost:" + port).collect(Collectors.toList()));
+
+        for (int i = 0; i < REPLICAS; i++) {
+            replicas.add(new SpringApplicationBuilder(SimilarProductsApplication.class)
+                    .properties(
+                            "server.port=" + ports.get(i),
+                            "external.api.base-url=" + upstream.baseUrl(),
+                            "peer-cache.enabled=true",
+                            "prefetch.enabled=false",
+                            "peer-cache.self=" + replicaUrls.get(i),
+                            "peer-cache.peers=" + String.join(",", replicaUrls),
+                            "peer-cache.hot-fraction=0",
+                            "peer-cache.secret=" + SECRET)
+                    .run());
+        }
+        warmUp();
+    }
+
+    /**
+     * Sends a request for a product set of its own to every replica, so that
+     * connections and code paths between replicas are warm.
+     */
+    private static void warmUp() {
+        stubProducts("100", "101", "102");
+        RestTemplate client = new RestTemplate();
+        for (String replicaUrl : replicaUrls) {
+            client.getForEntity(replicaUrl + "/product/100/similar", String.class);
+        }
+    }
+
+    @AfterAll
+    static void stopReplicas() {
+        replicas.forEach(ConfigurableApplicationContext::close);
+        upstream.stop();
+    }
+
+    @BeforeEach
+    void setUp() {
+        upstream.resetAll();
+        upstream.stubFor(get(urlEqualTo("/product/1/similarids"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withBody("[\"2\", \"3\"]")));
+        upstream.stubFor(get(urlEqualTo("/product/2"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withBody("{\"id\":\"2\",\"name\":\"Dress\",\"price\":19.99,\"availability\":true}")));
+        upstream.stubFor(get(urlEqualTo("/product/3"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withBody("{\"id\":\"3\",\"name\":\"Blazer\",\"price\":29.99,\"availability\":false}")));
+    }
+
+    private static void stubProducts(String productId, String... similarIds) {
+        upstream.stubFor(get(urlEqualTo("/product/" + productId + "/similarids"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withBody("[\"" + String.join("\", \"", similarIds) + "\"]")));
+        for (String similarId : similarIds) {
+            upstream.stubFor(get(urlEqualTo("/product/" + similarId))
+                    .willReturn(aResponse()
+                            .withStatus(200)
+                            .withHeader("Content-Type", "application/json")
+                            .withBody("{\"id\":\"" + similarId + "\",\"name\":\"Product " + similarId
+                                    + "\",\"price\":9.99,\"availability\":true}")));
+        }
+    }
+
+    @Test
+    void getSimilarProducts_shouldCallUpstreamOnce_whenRequestedOnEveryReplica() {
+        // Act
+        for (String replicaUrl : replicaUrls) {
+            ResponseEntity<String> response = client.getForEntity(replicaUrl + "/product/1/similar", String.class);
+
+            assertThat(response.getStatusCodeValue()).isEqualTo(200);
+            assertThat(response.getBody()).contains("Dress", "Blazer");
+        }
+
+        // Assert: each product was loaded by its owner only
+        upstream.verify(1, getRequestedFor(urlEqualTo("/product/1/similarids")));
+        upstream.verify(1, getRequestedFor(urlEqualTo("/product/2")));
+        upstream.verify(1, getRequestedFor(urlEqualTo("/product/3")));
+    }
+
+    @Test
+    void getSimilarProducts_shouldNotRememberMissing_whenOwnerFailsUpstream() {
+        // Arrange: product 9 asked on a replica that does not own it, while the upstream fails
+        String owner = new ConsistentHashRing(replicaUrls, 100).ownerOf("9");
+        String nonOwner = replicaUrls.stream().filter(url -> !url.equals(owner)).findFirst().orElseThrow();
+        upstream.stubFor(get(urlEqualTo("/product/9/similarids")).willReturn(aResponse().withStatus(500)));
+
+        assertThatThrownBy(() -> client.getForEntity(nonOwner + "/product/9/similar", String.class))
+                .isInstanceOf(HttpClientErrorException.NotFound.class);
+
+        // Act: the upstream recovers
+        stubProducts("9", "10");
+        ResponseEntity<String> response = client.getForEntity(nonOwner + "/product/9/similar", String.class);
+
+        // Assert
+        assertThat(response.getStatusCodeValue()).isEqualTo(200);
+        assertThat(response.getBody()).contains("Product 10");
+    }
+
+    @Test
+    void peerEndpoints_shouldRejectRequests_withoutSecret() {
+        assertThatThrownBy(() -> client.getForEntity(replicaUrls.get(0) + "/internal/peer/product/1", String.class))
+                .isInstanceOf(HttpClientErrorException.Forbidden.class);
+    }
+
+    @Test
+    void consistentHashRing_shouldAgreeOnOwner_acrossReplicas() {
+        ConsistentHashRing ring = new ConsistentHashRing(replicaUrls, 100);
+        ConsistentHashRing reordered = new ConsistentHashRing(
+                List.of(replicaUrls.get(2), replicaUrls.get(0), replicaUrls.get(1)), 100);
+
+        for (int productId = 1; productId <= 100; productId++) {
+            assertThat(reordered.ownerOf(String.valueOf(productId)))
+                    .isEqualTo(ring.ownerOf(String.valueOf(productId)));
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
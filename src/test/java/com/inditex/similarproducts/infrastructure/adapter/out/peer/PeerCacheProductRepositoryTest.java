@@ -0,0 +1,95 @@
+package com.inditex.similarproducts.infrastructure.adapter.out.peer;
+
+import com.inditex.similarproducts.domain.model.ProductDetail;
+import com.inditex.similarproducts.domain.port.out.ProductRepositoryPort;
+import com.inditex.similarproducts.infrastructure.adapter.out.rest.ProductDetailDto;
+import com.inditex.similarproducts.infrastructure.cache.MissingProductCache;
+import com.inditex.similarproducts.infrastructure.mapper.ProductMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PeerCacheProductRepositoryTest {
+
+    private static final String SELF = "http://replica-a";
+    private static final String OWNER = "http://replica-b";
+
+    @Mock
+    private ProductRepositoryPort upstream;
+
+    @Mock
+    private RestTemplate peerClient;
+
+    @Mock
+    private ProductMapper productMapper;
+
+    @Mock
+    private MissingProductCache missingProductCache;
+
+    private ConsistentHashRing ring;
+    private PeerCacheProductRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        PeerCacheSettings settings = new PeerCacheSettings();
+        settings.setHotFraction(0);
+        settings.setMaxWaitsPerOwner(1);
+        ring = new ConsistentHashRing(List.of(SELF, OWNER), 100);
+        repository = new PeerCacheProductRepository(upstream, ring, SELF, peerClient, productMapper,
+                missingProductCache, settings);
+    }
+
+    @Test
+    void getProductDetail_shouldCallUpstream_whenOwnerHasTooManyWaits() throws Exception {
+        String productId = productOwnedBy(OWNER);
+        ProductDetail productDetail = new ProductDetail(productId, "Product", 9.99, true);
+        CountDownLatch waiting = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(peerClient.getForObject(anyString(), eq(ProductDetailDto.class))).thenAnswer(invocation -> {
+            waiting.countDown();
+            release.await(1, TimeUnit.SECONDS);
+            return null;
+        });
+        when(upstream.getProductDetail(productId)).thenReturn(Optional.of(productDetail));
+
+        CompletableFuture<Optional<ProductDetail>> first =
+                CompletableFuture.supplyAsync(() -> repository.getProductDetail(productId));
+        assertThat(waiting.await(1, TimeUnit.SECONDS)).isTrue();
+
+        try {
+            assertThat(repository.getProductDetail(productId)).contains(productDetail);
+        } finally {
+            release.countDown();
+        }
+        first.get(1, TimeUnit.SECONDS);
+        verify(peerClient, times(1)).getForObject(anyString(), eq(ProductDetailDto.class));
+
+        // The wait is released once the owner answers
+        assertThat(repository.getProductDetail(productId)).isEmpty();
+        verify(peerClient, times(2)).getForObject(anyString(), eq(ProductDetailDto.class));
+    }
+
+    private String productOwnedBy(String node) {
+        return IntStream.range(1, 1000)
+                .mapToObj(String::valueOf)
+                .filter(productId -> node.equals(ring.ownerOf(productId)))
+                .findFirst()
+                .orElseThrow();
+    }
+}
@@ -0,0 +1,64 @@
+package com.inditex.similarproducts.infrastructure.adapter.out.rest;
+
+import com.inditex.similarproducts.infrastructure.adapter.out.rest.AdaptiveTimeouts.Endpoint;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveTimeoutsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private AdaptiveTimeouts adaptiveTimeouts;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        adaptiveTimeouts = new AdaptiveTimeouts(true, 3, 50, 5000, Duration.ofMinutes(1), 10, meterRegistry);
+    }
+
+    @Test
+    void readTimeoutMillis_shouldUseCeiling_whenNotEnoughSamples() {
+        adaptiveTimeouts.record(Endpoint.PRODUCT_DETAIL, Duration.ofMillis(20).toNanos());
+
+        assertThat(adaptiveTimeouts.readTimeoutMillis(Endpoint.PRODUCT_DETAIL)).isEqualTo(5000);
+    }
+
+    @Test
+    void readTimeoutMillis_shouldFollowP99TimesFactor_perEndpoint() {
+        for (int i = 0; i < 100; i++) {
+            adaptiveTimeouts.record(Endpoint.PRODUCT_DETAIL, Duration.ofMillis(20).toNanos());
+            adaptiveTimeouts.record(Endpoint.SIMILAR_IDS, Duration.ofMillis(200).toNanos());
+        }
+
+        // Bucket upper bounds are at most ~19% above the recorded latency
+        assertThat(adaptiveTimeouts.readTimeoutMillis(Endpoint.PRODUCT_DETAIL)).isBetween(60, 72);
+        assertThat(adaptiveTimeouts.readTimeoutMillis(Endpoint.SIMILAR_IDS)).isBetween(600, 720);
+    }
+
+    @Test
+    void readTimeoutMillis_shouldBeClamped() {
+        for (int i = 0; i < 100; i++) {
+            adaptiveTimeouts.record(Endpoint.PRODUCT_DETAIL, Duration.ofMillis(1).toNanos());
+            adaptiveTimeouts.record(Endpoint.SIMILAR_IDS, Duration.ofSeconds(10).toNanos());
+        }
+
+        assertThat(adaptiveTimeouts.readTimeoutMillis(Endpoint.PRODUCT_DETAIL)).isEqualTo(50);
+        assertThat(adaptiveTimeouts.readTimeoutMillis(Endpoint.SIMILAR_IDS)).isEqualTo(5000);
+    }
+
+    @Test
+    void readTimeoutMillis_shouldReportGauge() {
+        assertThat(meterRegistry.get("similarproducts.upstream.timeout").tag("endpoint", "product").gauge().value())
+                .isEqualTo(5000.0);
+    }
+
+    @Test
+    void endpointOf_shouldClassifyPaths() {
+        assertThat(Endpoint.of("/product/1/similarids")).isEqualTo(Endpoint.SIMILAR_IDS);
+        assertThat(Endpoint.of("/product/1")).isEqualTo(Endpoint.PRODUCT_DETAIL);
+    }
+}
@@ -0,0 +1,119 @@
+package com.inditex.similarproducts.infrastructure.adapter.out.rest;
+
+import com.inditex.similarproducts.infrastructure.adapter.out.rest.UpstreamBalancer.Replica;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UpstreamBalancerTest {
+
+    private static final long FAST = Duration.ofMillis(10).toNanos();
+    private static final long SLOW = Duration.ofMillis(100).toNanos();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void choose_shouldPreferLowerLatencyTimesInFlight() {
+        UpstreamBalancer balancer = balancer(50);
+        Replica fast = balancer.getReplicas().get(0);
+        for (int i = 0; i < 20; i++) {
+            Replica replica = balancer.choose();
+            balancer.release(replica, replica == fast ? FAST : SLOW, true);
+        }
+
+        Replica next = balancer.choose();
+        balancer.release(next, FAST, true);
+        assertThat(next).isSameAs(fast);
+
+        // Holding calls in flight on the fast replica eventually makes the slow one cheaper
+        Set<Replica> chosen = new HashSet<>();
+        List<Replica> held = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Replica replica = balancer.choose();
+            chosen.add(replica);
+            held.add(replica);
+        }
+        held.forEach(replica -> balancer.release(replica, replica == fast ? FAST : SLOW, true));
+        assertThat(chosen).hasSize(2);
+    }
+
+    @Test
+    void choose_shouldScoreUnmeasuredReplicaAtPeerAverage() {
+        UpstreamBalancer balancer = balancer(50);
+        Replica measured = balancer.choose();
+        balancer.release(measured, SLOW, true);
+
+        // With equal costs, calls held in flight spread over both replicas
+        List<Replica> held = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            held.add(balancer.choose());
+        }
+        held.forEach(replica -> balancer.release(replica, SLOW, true));
+
+        assertThat(held).filteredOn(replica -> replica == measured).hasSizeBetween(5, 15);
+    }
+
+    @Test
+    void release_shouldEjectFailingReplica_andReintroduceItAfterEjectionTime() throws InterruptedException {
+        UpstreamBalancer balancer = balancer(50);
+        Replica ejected = failUntilEjected(balancer);
+        assertThat(balancer.getReplicas()).filteredOn(replica -> replica.isEjected(System.nanoTime()))
+                .containsExactly(ejected);
+
+        for (int i = 0; i < 20; i++) {
+            Replica replica = balancer.choose();
+            assertThat(replica).isNotSameAs(ejected);
+            balancer.release(replica, FAST, true);
+        }
+
+        Thread.sleep(60);
+        Set<Replica> chosen = new HashSet<>();
+        for (int i = 0; i < 40; i++) {
+            Replica replica = balancer.choose();
+            chosen.add(replica);
+            balancer.release(replica, FAST, true);
+        }
+        assertThat(chosen).contains(ejected);
+        assertThat(meterRegistry.get("similarproducts.upstream.replica.ejections")
+                .tag("replica", ejected.getBaseUrl()).counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void choose_shouldFailOpen_whenAllReplicasAreEjected() {
+        UpstreamBalancer balancer = balancer(100);
+        for (int i = 0; i < 20; i++) {
+            balancer.release(balancer.choose(), FAST, false);
+        }
+
+        assertThat(balancer.getReplicas()).allMatch(replica -> replica.isEjected(System.nanoTime()));
+        assertThat(balancer.choose()).isNotNull();
+    }
+
+    private UpstreamBalancer balancer(int maxEjectionPercent) {
+        return new UpstreamBalancer(new String[] { "http://replica-a", "http://replica-b" }, 2,
+                Duration.ofMillis(50), Duration.ofSeconds(1), maxEjectionPercent, Duration.ZERO, 5000, meterRegistry);
+    }
+
+    /**
+     * Fails every call until one replica is ejected; with a 50% limit the
+     * other one stays in rotation.
+     */
+    private Replica failUntilEjected(UpstreamBalancer balancer) {
+        for (int i = 0; i < 20; i++) {
+            balancer.release(balancer.choose(), FAST, false);
+            for (Replica replica : balancer.getReplicas()) {
+                if (replica.isEjected(System.nanoTime())) {
+                    return replica;
+                }
+            }
+        }
+        throw new AssertionError("No replica was ejected");
+    }
+}
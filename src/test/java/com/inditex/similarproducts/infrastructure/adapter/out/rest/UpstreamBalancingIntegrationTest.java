@@ -0,0 +1,88 @@
+package com.inditex.similarproducts.infrastructure.adapter.out.rest;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.client.WireMock;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Integration tests for client-side load balancing.
+ * Runs two healthy and one failing WireMock replica of the external API on
+ * dynamic ports.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestPropertySource(properties = {
+        "prefetch.enabled=false",
+        "external.api.balancer.failure-threshold=2",
+        "external.api.balancer.ejection-time=1m",
+        "resilience4j.circuitbreaker.instances.productService.failureRateThreshold=100"
+})
+class UpstreamBalancingIntegrationTest {
+
+    private static final WireMockServer healthyA = new WireMockServer(options().dynamicPort());
+    private static final WireMockServer healthyB = new WireMockServer(options().dynamicPort());
+    private static final WireMockServer failing = new WireMockServer(options().dynamicPort());
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @DynamicPropertySource
+    static void upstreamReplicas(DynamicPropertyRegistry registry) {
+        for (WireMockServer healthy : new WireMockServer[] { healthyA, healthyB }) {
+            healthy.start();
+            healthy.stubFor(WireMock.get(urlPathMatching("/product/[0-9]+/similarids"))
+                    .willReturn(aResponse()
+                            .withStatus(200)
+                            .withHeader("Content-Type", "application/json")
+                            .withBody("[\"100\"]")));
+            healthy.stubFor(WireMock.get(urlEqualTo("/product/100"))
+                    .willReturn(aResponse()
+                            .withStatus(200)
+                            .withHeader("Content-Type", "application/json")
+                            .withBody("{\"id\":\"100\",\"name\":\"Shirt\",\"price\":9.99,\"availability\":true}")));
+        }
+        failing.start();
+        failing.stubFor(any(anyUrl()).willReturn(aResponse().withStatus(500)));
+
+        registry.add("external.api.base-urls",
+                () -> String.join(",", healthyA.baseUrl(), healthyB.baseUrl(), failing.baseUrl()));
+    }
+
+    @AfterAll
+    static void stopReplicas() {
+        healthyA.stop();
+        healthyB.stop();
+        failing.stop();
+    }
+
+    @Test
+    void getSimilarProducts_shouldSpreadLoadAndAvoidFailingReplica() throws Exception {
+        int ok = 0;
+        for (int i = 1; i <= 40; i++) {
+            int status = mockMvc.perform(get("/product/" + i + "/similar"))
+                    .andReturn().getResponse().getStatus();
+            if (status == 200) {
+                ok++;
+            }
+        }
+
+        // The failing replica is avoided after its first failure and ejected after two
+        assertThat(failing.getAllServeEvents()).hasSizeLessThanOrEqualTo(2);
+        assertThat(healthyA.getAllServeEvents()).isNotEmpty();
+        assertThat(healthyB.getAllServeEvents()).isNotEmpty();
+        assertThat(ok).isGreaterThanOrEqualTo(38);
+    }
+}
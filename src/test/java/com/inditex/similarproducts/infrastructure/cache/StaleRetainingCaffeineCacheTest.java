@@ -0,0 +1,79 @@
+package com.inditex.similarproducts.infrastructure.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StaleRetainingCaffeineCacheTest {
+
+    private StaleRetainingCaffeineCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new StaleRetainingCaffeineCache("similarProducts", Duration.ofHours(1), Duration.ZERO, 100);
+    }
+
+    @Test
+    void get_shouldLoadOnce_whenCalledConcurrentlyForTheSameKey() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> cache.get("1", () -> {
+            loads.incrementAndGet();
+            loading.countDown();
+            release.await(1, TimeUnit.SECONDS);
+            return "value";
+        }));
+        assertThat(loading.await(1, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<String> second = CompletableFuture.supplyAsync(() -> cache.get("1", () -> {
+            loads.incrementAndGet();
+            return "other";
+        }));
+        release.countDown();
+
+        assertThat(first.get(1, TimeUnit.SECONDS)).isEqualTo("value");
+        assertThat(second.get(1, TimeUnit.SECONDS)).isEqualTo("value");
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    void get_shouldNotBlockOtherKeys_whileLoading() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<String> slow = CompletableFuture.supplyAsync(() -> cache.get("1", () -> {
+            loading.countDown();
+            release.await(1, TimeUnit.SECONDS);
+            return "slow";
+        }));
+        assertThat(loading.await(1, TimeUnit.SECONDS)).isTrue();
+
+        try {
+            assertThat(cache.get("2", () -> "fast")).isEqualTo("fast");
+            cache.put("3", "put");
+            assertThat(cache.get("3", String.class)).isEqualTo("put");
+        } finally {
+            release.countDown();
+        }
+        assertThat(slow.get(1, TimeUnit.SECONDS)).isEqualTo("slow");
+    }
+
+    @Test
+    void get_shouldNotCacheFailedLoads() {
+        assertThatThrownBy(() -> cache.get("1", () -> {
+            throw new IllegalStateException("upstream down");
+        })).isInstanceOf(Cache.ValueRetrievalException.class);
+
+        assertThat(cache.get("1", () -> "value")).isEqualTo("value");
+    }
+}
@@ -0,0 +1,72 @@
+package com.inditex.similarproducts.infrastructure.observability;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AccessLogRingBufferTest {
+
+    @Test
+    void drain_shouldReturnElementsInOrder() {
+        AccessLogRingBuffer<Integer> buffer = new AccessLogRingBuffer<>(4);
+        buffer.offer(1);
+        buffer.offer(2);
+        buffer.offer(3);
+
+        List<Integer> drained = new ArrayList<>();
+        assertThat(buffer.drain(drained::add)).isEqualTo(3);
+        assertThat(drained).containsExactly(1, 2, 3);
+    }
+
+    @Test
+    void offer_shouldFail_whenBufferFull() {
+        AccessLogRingBuffer<Integer> buffer = new AccessLogRingBuffer<>(2);
+
+        assertThat(buffer.offer(1)).isTrue();
+        assertThat(buffer.offer(2)).isTrue();
+        assertThat(buffer.offer(3)).isFalse();
+
+        buffer.drain(element -> {
+        });
+
+        assertThat(buffer.offer(3)).isTrue();
+    }
+
+    @Test
+    void constructor_shouldRejectCapacityNotPowerOfTwo() {
+        assertThatThrownBy(() -> new AccessLogRingBuffer<Integer>(3))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void offer_shouldNotLoseElements_whenProducersAreConcurrent() throws InterruptedException {
+        int producers = 4;
+        int perProducer = 1_000;
+        AccessLogRingBuffer<Integer> buffer = new AccessLogRingBuffer<>(8192);
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        CountDownLatch done = new CountDownLatch(producers);
+
+        for (int p = 0; p < producers; p++) {
+            executor.execute(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    buffer.offer(i);
+                }
+                done.countDown();
+            });
+        }
+        assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+        executor.shutdown();
+
+        List<Integer> drained = new ArrayList<>();
+        buffer.drain(drained::add);
+        assertThat(drained).hasSize(producers * perProducer);
+    }
+}
@@ -0,0 +1,145 @@
+package com.inditex.similarproducts.infrastructure.prefetch;
+
+import com.inditex.similarproducts.application.service.SimilarProductsService;
+import com.inditex.similarproducts.domain.model.ProductDetail;
+import com.inditex.similarproducts.infrastructure.cache.MissingProductCache;
+import com.inditex.similarproducts.infrastructure.cache.StaleRetainingCaffeineCache;
+import com.inditex.similarproducts.infrastructure.resilience.LoadShedder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.IntPredicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SimilarProductsPrefetcherTest {
+
+    @Mock
+    private SimilarProductsService similarProductsService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private LoadShedder loadShedder;
+    private StaleRetainingCaffeineCache cache;
+    private SimilarProductsPrefetcher prefetcher;
+
+    private final List<ProductDetail> response = List.of(
+            new ProductDetail("2", "Dress", 19.99, true),
+            new ProductDetail("3", "Blazer", 29.99, false),
+            new ProductDetail("4", "Boots", 39.99, true));
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        loadShedder = new LoadShedder(true, 1, Duration.ofMillis(100), Duration.ofSeconds(1), meterRegistry);
+        cache = new StaleRetainingCaffeineCache("similarProducts", Duration.ofMinutes(1), Duration.ZERO, 100);
+        prefetcher = newPrefetcher(100);
+    }
+
+    private SimilarProductsPrefetcher newPrefetcher(double maxUpstreamRate) {
+        return new SimilarProductsPrefetcher(true, 2, maxUpstreamRate, 1, 1, 10, Duration.ofMinutes(1),
+                similarProductsService, loadShedder, cache,
+                new MissingProductCache(Duration.ofMinutes(1), 100, meterRegistry), meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        prefetcher.shutdown();
+    }
+
+    @Test
+    void prefetch_shouldLoadTopKProducts() {
+        prefetcher.prefetch(response);
+
+        verify(similarProductsService, timeout(1000)).executeInBackground(eq("2"), eq(1), any());
+        verify(similarProductsService, timeout(1000)).executeInBackground(eq("3"), eq(1), any());
+        verify(similarProductsService, never()).executeInBackground(eq("4"), anyInt(), any());
+    }
+
+    @Test
+    void prefetch_shouldSkipProducts_whenAlreadyCached() {
+        cache.put("2", List.of());
+
+        prefetcher.prefetch(response);
+
+        verify(similarProductsService, timeout(1000)).executeInBackground(eq("3"), anyInt(), any());
+        verify(similarProductsService, never()).executeInBackground(eq("2"), anyInt(), any());
+        assertThat(counter("similarproducts.prefetch", "skipped")).isEqualTo(1);
+    }
+
+    @Test
+    void prefetch_shouldDoNothing_whenOverloaded() {
+        assertThat(loadShedder.tryAcquire()).isTrue();
+
+        prefetcher.prefetch(response);
+
+        verifyNoInteractions(similarProductsService);
+    }
+
+    @Test
+    void recordRequest_shouldCountHit_whenProductWasPrefetched() throws InterruptedException {
+        when(similarProductsService.executeInBackground(eq("2"), anyInt(), any())).thenReturn(Optional.of(List.of()));
+        when(similarProductsService.executeInBackground(eq("3"), anyInt(), any())).thenReturn(Optional.of(List.of()));
+
+        prefetcher.prefetch(response);
+        awaitCount("issued", 2);
+        prefetcher.recordRequest("2");
+        prefetcher.recordRequest("2");
+
+        assertThat(counter("similarproducts.prefetch.effectiveness", "hit")).isEqualTo(1);
+        assertThat(cache.get("2")).isNotNull();
+    }
+
+    @Test
+    void prefetch_shouldNotIssueFanOut_whenItExceedsBudget() throws InterruptedException {
+        prefetcher.shutdown();
+        prefetcher = newPrefetcher(10);
+        when(similarProductsService.executeInBackground(eq("2"), anyInt(), any())).thenAnswer(invocation -> {
+            IntPredicate admission = invocation.getArgument(2);
+            return admission.test(500) ? Optional.of(List.of()) : Optional.empty();
+        });
+
+        prefetcher.prefetch(response.subList(0, 1));
+        awaitCount("budget_exhausted", 1);
+
+        assertThat(counter("similarproducts.prefetch", "budget_exhausted")).isEqualTo(1);
+        assertThat(counter("similarproducts.prefetch", "issued")).isZero();
+    }
+
+    @Test
+    void upstreamBudget_shouldReserveCalls_onlyWhenAllTokensAreAvailable() {
+        SimilarProductsPrefetcher.UpstreamBudget budget = new SimilarProductsPrefetcher.UpstreamBudget(10);
+
+        assertThat(budget.tryReserve(1)).isTrue();
+        assertThat(budget.tryReserve(20)).isFalse();
+        assertThat(budget.tryReserve(9)).isTrue();
+        assertThat(budget.tryReserve(1)).isFalse();
+    }
+
+    private void awaitCount(String outcome, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(1).toNanos();
+        while (counter("similarproducts.prefetch", outcome) < expected && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private double counter(String name, String outcome) {
+        return meterRegistry.get(name).tag("outcome", outcome).counter().count();
+    }
+}
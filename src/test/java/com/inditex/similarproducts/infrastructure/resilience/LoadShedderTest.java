@@ -0,0 +1,103 @@
+package com.inditex.similarproducts.infrastructure.resilience;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoadShedderTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private LoadShedder loadShedder;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        loadShedder = new LoadShedder(true, 2, Duration.ofMillis(100), Duration.ofSeconds(1), meterRegistry);
+    }
+
+    @Test
+    void tryAcquire_shouldShed_whenMaxInFlightReached() {
+        assertThat(loadShedder.tryAcquire()).isTrue();
+        assertThat(loadShedder.isOverloaded()).isFalse();
+        assertThat(loadShedder.tryAcquire()).isTrue();
+        assertThat(loadShedder.isOverloaded()).isTrue();
+        assertThat(loadShedder.tryAcquire()).isFalse();
+
+        loadShedder.release(0);
+
+        assertThat(loadShedder.isOverloaded()).isFalse();
+        assertThat(loadShedder.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void tryAcquire_shouldShed_whenQueueDelayExceeded() {
+        for (int i = 0; i < 5; i++) {
+            assertThat(loadShedder.tryAcquire()).isTrue();
+            loadShedder.release(Duration.ofMillis(500).toNanos());
+        }
+
+        assertThat(loadShedder.isOverloaded()).isTrue();
+        assertThat(loadShedder.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void tryAcquire_shouldAdmit_whenQueueDelayStaysBelowTarget() {
+        for (int i = 0; i < 5; i++) {
+            assertThat(loadShedder.tryAcquire()).isTrue();
+            loadShedder.release(Duration.ofMillis(40).toNanos());
+        }
+
+        assertThat(loadShedder.isOverloaded()).isFalse();
+        assertThat(loadShedder.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void tryAcquire_shouldAdmit_whenSingleSlowRequestFollowsIdlePeriod() {
+        assertThat(loadShedder.tryAcquire()).isTrue();
+        loadShedder.release(Duration.ofSeconds(2).toNanos());
+
+        assertThat(loadShedder.isOverloaded()).isFalse();
+        assertThat(loadShedder.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void tryAcquire_shouldAdmit_whenQueueDelayRecovers() {
+        loadShedder = new LoadShedder(true, 100, Duration.ofMillis(100), Duration.ofSeconds(1), meterRegistry);
+        for (int i = 0; i < 31; i++) {
+            loadShedder.tryAcquire();
+        }
+        loadShedder.release(Duration.ofMillis(500).toNanos());
+        for (int i = 0; i < 30; i++) {
+            loadShedder.release(Duration.ofMillis(1).toNanos());
+        }
+
+        assertThat(loadShedder.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void tryAcquire_shouldAlwaysAdmit_whenDisabled() {
+        loadShedder = new LoadShedder(false, 1, Duration.ofMillis(100), Duration.ofSeconds(1), meterRegistry);
+
+        assertThat(loadShedder.tryAcquire()).isTrue();
+        assertThat(loadShedder.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void recordShed_shouldCountByOutcome() {
+        loadShedder.recordCached();
+        loadShedder.recordStale();
+        loadShedder.recordStale();
+        loadShedder.recordRejected();
+
+        assertThat(meterRegistry.get("similarproducts.loadshedding.shed").tag("outcome", "cached").counter().count())
+                .isEqualTo(1.0);
+        assertThat(meterRegistry.get("similarproducts.loadshedding.shed").tag("outcome", "stale").counter().count())
+                .isEqualTo(2.0);
+        assertThat(meterRegistry.get("similarproducts.loadshedding.shed").tag("outcome", "rejected").counter().count())
+                .isEqualTo(1.0);
+    }
+}
@@ -0,0 +1,74 @@
+package com.inditex.similarproducts.infrastructure.startup;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.inditex.similarproducts.infrastructure.adapter.out.rest.AdaptiveTimeouts;
+import com.inditex.similarproducts.infrastructure.adapter.out.rest.ProductRestClientAdapter;
+import com.inditex.similarproducts.infrastructure.cache.StaleRetainingCaffeineCache;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.anyRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.anyUrl;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for the startup warm-up.
+ * The warm-up runs through the real beans before the tests; the external API
+ * is a WireMock server that must never be called by it.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestPropertySource(properties = {
+        "startup.warmup.enabled=true",
+        "startup.warmup.iterations=40",
+        "prefetch.enabled=true"
+})
+class WarmUpRunnerIntegrationTest {
+
+    private static final WireMockServer upstream = new WireMockServer(options().dynamicPort());
+
+    @Autowired
+    private StaleRetainingCaffeineCache similarProductsCache;
+
+    @Autowired
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+
+    @Autowired
+    private AdaptiveTimeouts adaptiveTimeouts;
+
+    @DynamicPropertySource
+    static void upstream(DynamicPropertyRegistry registry) {
+        upstream.start();
+        registry.add("external.api.base-url", upstream::baseUrl);
+    }
+
+    @AfterAll
+    static void stopUpstream() {
+        upstream.stop();
+    }
+
+    @Test
+    void warmUp_shouldNotCallTheUpstream() {
+        assertThat(upstream.findAll(anyRequestedFor(anyUrl()))).isEmpty();
+    }
+
+    @Test
+    void warmUp_shouldResetTheStateLeftBySyntheticRequests() {
+        assertThat(similarProductsCache.getRetained("1")).isNull();
+
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(
+                ProductRestClientAdapter.CIRCUIT_BREAKER_NAME);
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(circuitBreaker.getMetrics().getNumberOfBufferedCalls()).isZero();
+
+        assertThat(adaptiveTimeouts.readTimeoutMillis(AdaptiveTimeouts.Endpoint.PRODUCT_DETAIL))
+                .isEqualTo(adaptiveTimeouts.getCeilingMillis());
+    }
+}
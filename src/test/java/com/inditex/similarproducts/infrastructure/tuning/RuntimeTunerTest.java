@@ -0,0 +1,110 @@
+package com.inditex.similarproducts.infrastructure.tuning;
+
+import com.inditex.similarproducts.application.concurrent.FanOutScheduler;
+import com.inditex.similarproducts.infrastructure.adapter.out.rest.AdaptiveTimeouts;
+import com.inditex.similarproducts.infrastructure.cache.StaleRetainingCaffeineCache;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RuntimeTunerTest {
+
+    private FanOutScheduler fanOutScheduler;
+    private StaleRetainingCaffeineCache cache;
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+    private RetryRegistry retryRegistry;
+    private RuntimeTuner runtimeTuner;
+
+    @BeforeEach
+    void setUp() {
+        fanOutScheduler = new FanOutScheduler(4, 2);
+        cache = new StaleRetainingCaffeineCache("similarProducts", Duration.ofHours(1), Duration.ZERO, 100);
+        circuitBreakerRegistry = CircuitBreakerRegistry.ofDefaults();
+        retryRegistry = RetryRegistry.ofDefaults();
+        runtimeTuner = new RuntimeTuner(fanOutScheduler, cache,
+                new AdaptiveTimeouts(true, 3, 50, 5000, Duration.ofMinutes(1), 10, new SimpleMeterRegistry()),
+                circuitBreakerRegistry, retryRegistry, 10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        fanOutScheduler.shutdown();
+    }
+
+    @Test
+    void apply_shouldUpdateComponentsAndRecordChange() {
+        TuningChange change = runtimeTuner.apply(Map.of(
+                TuningSettings.FAN_OUT_WORKERS, "8",
+                TuningSettings.CACHE_TTL, "10m",
+                TuningSettings.BREAKER_FAILURE_RATE_THRESHOLD, "25",
+                TuningSettings.RETRY_MAX_ATTEMPTS, "2"), "test");
+
+        assertThat(fanOutScheduler.getWorkerCount()).isEqualTo(8);
+        assertThat(cache.getTtl()).isEqualTo(Duration.ofMinutes(10));
+        assertThat(circuitBreakerRegistry.circuitBreaker("productService").getCircuitBreakerConfig()
+                .getFailureRateThreshold()).isEqualTo(25f);
+        assertThat(retryRegistry.retry("productService").getRetryConfig().getMaxAttempts()).isEqualTo(2);
+        assertThat(change.getBefore()).containsEntry(TuningSettings.FAN_OUT_WORKERS, "4");
+        assertThat(change.getAfter()).containsEntry(TuningSettings.FAN_OUT_WORKERS, "8");
+        assertThat(runtimeTuner.getHistory()).containsExactly(change);
+    }
+
+    @Test
+    void apply_shouldChangeNothing_whenAnyValueIsRejected() {
+        assertThatThrownBy(() -> runtimeTuner.apply(Map.of(
+                TuningSettings.FAN_OUT_WORKERS, "8",
+                TuningSettings.BREAKER_FAILURE_RATE_THRESHOLD, "150"), "test"))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(fanOutScheduler.getWorkerCount()).isEqualTo(4);
+        assertThat(runtimeTuner.getHistory()).isEmpty();
+    }
+
+    @Test
+    void apply_shouldLeaveOpenBreakerOpen_whenChangeIsRejected() {
+        CircuitBreaker breaker = circuitBreakerRegistry.circuitBreaker("productService");
+        breaker.transitionToOpenState();
+
+        assertThatThrownBy(() -> runtimeTuner.apply(Map.of(
+                TuningSettings.FAN_OUT_WORKERS, "0",
+                TuningSettings.BREAKER_FAILURE_RATE_THRESHOLD, "25"), "test"))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(circuitBreakerRegistry.circuitBreaker("productService")).isSameAs(breaker);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.getCircuitBreakerConfig().getFailureRateThreshold()).isEqualTo(50f);
+        assertThat(fanOutScheduler.getWorkerCount()).isEqualTo(4);
+    }
+
+    @Test
+    void apply_shouldRejectUnknownSetting() {
+        assertThatThrownBy(() -> runtimeTuner.apply(Map.of("server.port", "8080"), "test"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rollback_shouldRestoreLatestChanges() {
+        runtimeTuner.apply(Map.of(TuningSettings.FAN_OUT_WORKERS, "8"), "test");
+        runtimeTuner.apply(Map.of(TuningSettings.CACHE_MAXIMUM_SIZE, "50"), "test");
+
+        runtimeTuner.rollback("test");
+        assertThat(cache.getMaximumSize()).isEqualTo(100);
+        assertThat(fanOutScheduler.getWorkerCount()).isEqualTo(8);
+
+        runtimeTuner.rollback("test");
+        assertThat(fanOutScheduler.getWorkerCount()).isEqualTo(4);
+
+        assertThat(runtimeTuner.rollback("test")).isNull();
+        assertThat(runtimeTuner.getHistory()).hasSize(4);
+    }
+}